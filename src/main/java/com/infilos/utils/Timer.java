@@ -1,9 +1,19 @@
 package com.infilos.utils;
 
+import com.infilos.utils.timer.ActivityTimer;
+import com.infilos.utils.timer.BackoffPolicy;
+import com.infilos.utils.timer.Jitter;
 import com.infilos.utils.timer.PeriodTask;
+import com.infilos.utils.timer.RetryScheduler;
+import com.infilos.utils.timer.Schedule;
+import com.infilos.utils.timer.SharedTicker;
+import com.infilos.utils.timer.ScheduleTask;
 import com.infilos.utils.timer.SystemTimer;
 import com.infilos.utils.timer.TimerTask;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author infilos on 2020-08-07.
  */
@@ -32,6 +42,68 @@ public interface Timer {
         submit(new PeriodTask(this, runnable, delayInMills, intervalInMills));
     }
 
+    /**
+     * Periodic task whose start phase is randomized once by the jitter, eg. Jitter.uniform(intervalInMills).
+     */
+    default void submit(Runnable runnable, long delayInMills, long intervalInMills, Jitter phase) {
+        submit(new PeriodTask(this, runnable, delayInMills, intervalInMills, phase));
+    }
+
+    /**
+     * Periodic task whose start phase is derived from the key, eg. Jitter.spread(intervalInMills) with a connection id.
+     */
+    default void submit(Runnable runnable, long delayInMills, long intervalInMills, Jitter phase, Object key) {
+        submit(new PeriodTask(this, runnable, delayInMills, intervalInMills, phase, key));
+    }
+
+    /**
+     * Run the runnable at each fire time of the schedule, eg. Schedule.cron("0 0/5 * * * ?").
+     * The returned task can be cancelled to stop all the following fires.
+     */
+    default TimerTask schedule(Runnable runnable, Schedule schedule) {
+        ScheduleTask task = new ScheduleTask(this, runnable, schedule);
+        if (!task.isExhausted()) {
+            submit(task);
+        }
+        return task;
+    }
+
+    /**
+     * Start an idle timeout, keep it fresh with {@link ActivityTimer#touch()} instead of resubmitting a task.
+     */
+    default ActivityTimer activity(long timeoutInMills, Runnable onIdle) {
+        return new ActivityTimer(this, timeoutInMills, onIdle).start();
+    }
+
+    /**
+     * Call until success, scheduling the retries through this timer, without in flight limits.
+     * Use a {@link RetryScheduler} to bound the retries in flight globally and per key.
+     * Attempts run on the timer's expiry thread, use a RetryScheduler with an executor for calls that may block.
+     */
+    default <T> CompletableFuture<T> retry(Callable<T> callable, BackoffPolicy policy) {
+        return new RetryScheduler(this, Integer.MAX_VALUE, Integer.MAX_VALUE).retry(callable, policy);
+    }
+
+    /**
+     * Submit the runnable as a member of the group, so it can be cancelled together with the others by {@link #cancelGroup(Object)}.
+     */
+    default TimerTask submit(Object group, Runnable runnable, long delayInMills) {
+        TimerTask task = task(runnable, delayInMills);
+        task.setGroup(group);
+        submit(task);
+        return task;
+    }
+
+    /**
+     * Cancel every pending task of the group, at a cost proportional to the group size.
+     *
+     * @return the number of cancelled tasks, or -1 if unknown, eg. the group is cancelled asynchronously on another node.
+     * @throws UnsupportedOperationException if the timer does not track groups.
+     */
+    default int cancelGroup(Object group) {
+        throw new UnsupportedOperationException("Group cancel is not supported by " + getClass().getName());
+    }
+
     /**
      * Advance the internal clock, executing any tasks whose expiration has been reached
      * within the duration of the passed timeout.
@@ -69,6 +141,13 @@ public interface Timer {
         return new SystemTimer(name);
     }
 
+    /**
+     * Lightweight timer without its own thread, ticked by the shared ticker.
+     */
+    static Timer create(String name, SharedTicker ticker) {
+        return ticker.create(name);
+    }
+
     static TimerTask task(TimerTask task, long delayInMills) {
         task.setDelay(delayInMills);
         return task;
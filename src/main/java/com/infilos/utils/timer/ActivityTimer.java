@@ -0,0 +1,98 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+/**
+ * Idle timeout whose deadline is extended lazily, like netty's IdleStateHandler. {@link #touch()} only
+ * writes the last activity time, and when the wheel entry fires it re-arms for the remaining time
+ * instead of firing if there was activity meanwhile. While idle, the callback fires once per timeout
+ * until {@link #stop()}.
+ *
+ * Usage, eg. ActivityTimer idle = timer.activity(30000L, connection::close); then idle.touch() on each read.
+ */
+
+public final class ActivityTimer extends TimerTask {
+    private final Timer timer;
+    private final long timeoutInMillis;
+    private final Runnable onIdle;
+
+    private volatile long lastActivity;
+    private volatile boolean stopped = true;
+
+    /**
+     * Held while the callback runs, so it never runs once {@link #stop()} has returned.
+     */
+    private final Object idleLock = new Object();
+
+    public ActivityTimer(Timer timer, long timeoutInMillis, Runnable onIdle) {
+        if (timeoutInMillis <= 0) {
+            throw new IllegalArgumentException("Activity timeout must be positive: " + timeoutInMillis);
+        }
+        this.timer = timer;
+        this.timeoutInMillis = timeoutInMillis;
+        this.onIdle = onIdle;
+    }
+
+    public ActivityTimer start() {
+        stopped = false;
+        lastActivity = Clock.now();
+        rearm(timeoutInMillis);
+        return this;
+    }
+
+    /**
+     * Record an activity, cheap enough to be called on every read.
+     */
+    public void touch() {
+        lastActivity = Clock.now();
+    }
+
+    /**
+     * Waits for a running callback, unless called from the callback itself.
+     */
+    public void stop() {
+        synchronized (idleLock) {
+            stopped = true;
+        }
+        cancel();
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    @Override
+    public void run() {
+        if (stopped) {
+            return;
+        }
+
+        long remaining = lastActivity + timeoutInMillis - Clock.now();
+        if (remaining > 0) {
+            rearm(remaining);
+            return;
+        }
+
+        try {
+            synchronized (idleLock) {
+                if (stopped) {
+                    return;
+                }
+                onIdle.run();
+            }
+        } finally {
+            rearm(timeoutInMillis);
+        }
+    }
+
+    private void rearm(long delayInMillis) {
+        if (!stopped) {
+            this.setDelay(delayInMillis);
+            this.resubmit(timer);
+            // A concurrent stop may have cancelled before the entry was added.
+            if (stopped) {
+                cancel();
+            }
+        }
+    }
+}
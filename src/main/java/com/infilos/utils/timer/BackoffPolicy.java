@@ -0,0 +1,90 @@
+package com.infilos.utils.timer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delays between retry attempts, with an attempts limit and an overall deadline budget.
+ * Usage, eg. BackoffPolicy.decorrelated(100L, 10000L).maxAttempts(8).deadline(60000L);
+ */
+
+public final class BackoffPolicy {
+    private final long baseInMillis;
+    private final long capInMillis;
+    private final boolean decorrelated;
+    private final int maxAttempts;
+    private final long deadlineInMillis;
+
+    private BackoffPolicy(long baseInMillis, long capInMillis, boolean decorrelated, int maxAttempts, long deadlineInMillis) {
+        if (baseInMillis <= 0 || capInMillis < baseInMillis) {
+            throw new IllegalArgumentException("Backoff requires 0 < base <= cap: " + baseInMillis + ", " + capInMillis);
+        }
+        this.baseInMillis = baseInMillis;
+        this.capInMillis = capInMillis;
+        this.decorrelated = decorrelated;
+        this.maxAttempts = maxAttempts;
+        this.deadlineInMillis = deadlineInMillis;
+    }
+
+    /**
+     * Double the delay from base up to cap.
+     */
+    public static BackoffPolicy exponential(long baseInMillis, long capInMillis) {
+        return new BackoffPolicy(baseInMillis, capInMillis, false, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Exponential backoff with decorrelated jitter, each delay is random in [base, previous * 3] up to cap,
+     * so retries failed together do not stay synchronized.
+     */
+    public static BackoffPolicy decorrelated(long baseInMillis, long capInMillis) {
+        return new BackoffPolicy(baseInMillis, capInMillis, true, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxAttempts total attempts, including the first one.
+     */
+    public BackoffPolicy maxAttempts(int maxAttempts) {
+        return new BackoffPolicy(baseInMillis, capInMillis, decorrelated, maxAttempts, deadlineInMillis);
+    }
+
+    /**
+     * Give up when the next attempt would start later than the deadline after the first one.
+     */
+    public BackoffPolicy deadline(long deadlineInMillis) {
+        return new BackoffPolicy(baseInMillis, capInMillis, decorrelated, maxAttempts, deadlineInMillis);
+    }
+
+    /**
+     * @param previousDelayInMillis delay before the previous attempt, 0 for the first retry.
+     */
+    public long nextDelay(long previousDelayInMillis) {
+        if (previousDelayInMillis <= 0) {
+            return decorrelated ? between(baseInMillis, baseInMillis * 3) : baseInMillis;
+        }
+        long grown = decorrelated ? between(baseInMillis, saturatedMultiply(previousDelayInMillis, 3)) : saturatedMultiply(previousDelayInMillis, 2);
+        return Math.min(grown, capInMillis);
+    }
+
+    /**
+     * @return whether another attempt is allowed after the given attempts, starting at the given elapsed time.
+     */
+    public boolean canRetry(int attempts, long elapsedInMillis) {
+        return attempts < maxAttempts && elapsedInMillis <= deadlineInMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getDeadline() {
+        return deadlineInMillis;
+    }
+
+    private long between(long lo, long hi) {
+        return Math.min(lo + ThreadLocalRandom.current().nextLong(hi - lo + 1), capInMillis);
+    }
+
+    private static long saturatedMultiply(long value, int factor) {
+        return value > Long.MAX_VALUE / factor ? Long.MAX_VALUE : value * factor;
+    }
+}
@@ -0,0 +1,45 @@
+package com.infilos.utils.timer;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weekend days plus a mutable holiday set, used to exclude fire times of a schedule.
+ * Usage, eg. schedule.onBusinessDays(BusinessCalendar.weekdays().addHoliday(LocalDate.of(2026, 10, 1)));
+ */
+
+@ThreadSafe
+public final class BusinessCalendar {
+    private final Set<DayOfWeek> weekend;
+    private final Set<LocalDate> holidays = ConcurrentHashMap.newKeySet();
+
+    public BusinessCalendar(Collection<DayOfWeek> weekend) {
+        this.weekend = weekend.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(weekend);
+    }
+
+    /**
+     * @return calendar with saturday and sunday as weekend.
+     */
+    public static BusinessCalendar weekdays() {
+        return new BusinessCalendar(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+    }
+
+    public BusinessCalendar addHoliday(LocalDate date) {
+        holidays.add(date);
+        return this;
+    }
+
+    public BusinessCalendar removeHoliday(LocalDate date) {
+        holidays.remove(date);
+        return this;
+    }
+
+    public boolean isBusinessDay(LocalDate date) {
+        return !weekend.contains(date.getDayOfWeek()) && !holidays.contains(date);
+    }
+}
@@ -16,4 +16,11 @@ public final class Clock {
     public static long now() {
         return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
     }
+
+    /**
+     * @return system wall time as epoch milliseconds, used by calendar based schedules.
+     */
+    public static long epoch() {
+        return System.currentTimeMillis();
+    }
 }
@@ -0,0 +1,229 @@
+package com.infilos.utils.timer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Cron expression schedule, supports both 5 fields (minute hour day-of-month month day-of-week)
+ * and 6 fields (second minute hour day-of-month month day-of-week) forms, with lists, ranges,
+ * steps, '*', '?' and english month/day names.
+ *
+ * Each field is precompiled into a bitmask once, so computing the next fire time only jumps
+ * between set bits instead of rescanning the expression.
+ */
+
+public final class CronSchedule implements Schedule {
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /**
+     * Expressions like "0 0 30 2 *" never match, stop searching after this many years.
+     */
+    private static final int SEARCH_YEARS = 8;
+
+    private final String expression;
+    private final ZoneId zone;
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+
+    /**
+     * Follow the vixie cron rule, if either day field is unrestricted both must match,
+     * otherwise matching any of them is enough.
+     */
+    private final boolean anyDayMatches;
+
+    private CronSchedule(String expression, ZoneId zone, long seconds, long minutes, long hours,
+                         long daysOfMonth, long months, long daysOfWeek, boolean anyDayMatches) {
+        this.expression = expression;
+        this.zone = zone;
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.anyDayMatches = anyDayMatches;
+    }
+
+    public static CronSchedule parse(String expression, ZoneId zone) {
+        if (expression == null || zone == null) {
+            throw new IllegalArgumentException("Cron expression and zone must not be null");
+        }
+
+        String[] fields = expression.trim().split("\\s+");
+        int offset;
+        if (fields.length == 5) {
+            offset = 0;
+        } else if (fields.length == 6) {
+            offset = 1;
+        } else {
+            throw new IllegalArgumentException("Cron expression must have 5 or 6 fields: " + expression);
+        }
+
+        long seconds = offset == 0 ? 1L : parseField(fields[0], 0, 59, null, 0);
+        long minutes = parseField(fields[offset], 0, 59, null, 0);
+        long hours = parseField(fields[offset + 1], 0, 23, null, 0);
+        long daysOfMonth = parseField(fields[offset + 2], 1, 31, null, 0);
+        long months = parseField(fields[offset + 3], 1, 12, MONTHS, 1);
+        long daysOfWeek = parseField(fields[offset + 4], 0, 7, DAYS, 0);
+        if ((daysOfWeek & (1L << 7)) != 0) {
+            // both 0 and 7 stand for sunday
+            daysOfWeek = (daysOfWeek | 1L) & ~(1L << 7);
+        }
+
+        boolean anyDayMatches = !isUnrestricted(fields[offset + 2]) && !isUnrestricted(fields[offset + 4]);
+
+        return new CronSchedule(expression, zone, seconds, minutes, hours, daysOfMonth, months, daysOfWeek, anyDayMatches);
+    }
+
+    @Override
+    public long next(long afterInMillis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(afterInMillis), zone).withNano(0).plusSeconds(1);
+        int lastYear = time.getYear() + SEARCH_YEARS;
+
+        while (time.getYear() <= lastYear) {
+            int month = nextBit(months, time.getMonthValue());
+            if (month < 0) {
+                time = LocalDateTime.of(time.getYear() + 1, firstBit(months), 1, 0, 0);
+                continue;
+            }
+            if (month != time.getMonthValue()) {
+                time = LocalDateTime.of(time.getYear(), month, 1, 0, 0);
+                continue;
+            }
+
+            if (!matchDay(time.toLocalDate())) {
+                time = time.toLocalDate().plusDays(1).atStartOfDay();
+                continue;
+            }
+
+            int hour = nextBit(hours, time.getHour());
+            if (hour < 0) {
+                time = time.toLocalDate().plusDays(1).atStartOfDay();
+                continue;
+            }
+            if (hour != time.getHour()) {
+                time = time.withHour(hour).withMinute(0).withSecond(0);
+            }
+
+            int minute = nextBit(minutes, time.getMinute());
+            if (minute < 0) {
+                time = time.withMinute(0).withSecond(0).plusHours(1);
+                continue;
+            }
+            if (minute != time.getMinute()) {
+                time = time.withMinute(minute).withSecond(0);
+            }
+
+            int second = nextBit(seconds, time.getSecond());
+            if (second < 0) {
+                time = time.withSecond(0).plusMinutes(1);
+                continue;
+            }
+            time = time.withSecond(second);
+
+            // Local times inside a DST gap are shifted forward by the zone rules, those inside an overlap
+            // may map before the requested instant, in which case keep searching.
+            long fireTime = time.atZone(zone).toInstant().toEpochMilli();
+            if (fireTime > afterInMillis) {
+                return fireTime;
+            }
+            time = time.plusSeconds(1);
+        }
+
+        return NEVER;
+    }
+
+    @Override
+    public ZoneId zone() {
+        return zone;
+    }
+
+    @Override
+    public String toString() {
+        return "CronSchedule(" + expression + ", " + zone + ")";
+    }
+
+    private boolean matchDay(LocalDate date) {
+        boolean dayOfMonth = (daysOfMonth & (1L << date.getDayOfMonth())) != 0;
+        boolean dayOfWeek = (daysOfWeek & (1L << (date.getDayOfWeek().getValue() % 7))) != 0;
+        return anyDayMatches ? dayOfMonth || dayOfWeek : dayOfMonth && dayOfWeek;
+    }
+
+    private static int nextBit(long mask, int from) {
+        long remain = mask & (-1L << from);
+        return remain == 0 ? -1 : Long.numberOfTrailingZeros(remain);
+    }
+
+    private static int firstBit(long mask) {
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    private static boolean isUnrestricted(String field) {
+        return field.startsWith("*") || field.startsWith("?");
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, int nameBase) {
+        long mask = 0L;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, max, null, 0, field);
+                part = part.substring(0, slash);
+            }
+
+            int lo;
+            int hi;
+            int dash = part.indexOf('-');
+            if (part.equals("*") || part.equals("?")) {
+                lo = min;
+                hi = max;
+            } else if (dash > 0) {
+                lo = parseValue(part.substring(0, dash), min, max, names, nameBase, field);
+                hi = parseValue(part.substring(dash + 1), min, max, names, nameBase, field);
+            } else {
+                lo = parseValue(part, min, max, names, nameBase, field);
+                hi = slash >= 0 ? max : lo;
+            }
+
+            if (lo > hi) {
+                throw new IllegalArgumentException("Invalid cron range '" + part + "' in field: " + field);
+            }
+            for (int value = lo; value <= hi; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseValue(String value, int min, int max, String[] names, int nameBase, String field) {
+        if (names != null) {
+            String upper = value.toUpperCase(Locale.ROOT);
+            for (int idx = 0; idx < names.length; idx++) {
+                if (names[idx].equals(upper)) {
+                    return idx + nameBase;
+                }
+            }
+        }
+
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cron value '" + value + "' in field: " + field, ex);
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException("Cron value '" + value + "' out of range [" + min + ", " + max + "] in field: " + field);
+        }
+        return parsed;
+    }
+}
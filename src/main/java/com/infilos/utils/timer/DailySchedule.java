@@ -0,0 +1,49 @@
+package com.infilos.utils.timer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Fire once a day at a fixed local time of the given zone.
+ */
+
+public final class DailySchedule implements Schedule {
+    private final LocalTime timeOfDay;
+    private final ZoneId zone;
+
+    public DailySchedule(LocalTime timeOfDay, ZoneId zone) {
+        if (timeOfDay == null || zone == null) {
+            throw new IllegalArgumentException("Time of day and zone must not be null");
+        }
+        this.timeOfDay = timeOfDay;
+        this.zone = zone;
+    }
+
+    @Override
+    public long next(long afterInMillis) {
+        LocalDateTime candidate = LocalDateTime.ofInstant(Instant.ofEpochMilli(afterInMillis), zone)
+            .toLocalDate()
+            .atTime(timeOfDay);
+
+        // At most two days ahead, one more when DST overlap maps today's candidate backwards.
+        while (true) {
+            long fireTime = candidate.atZone(zone).toInstant().toEpochMilli();
+            if (fireTime > afterInMillis) {
+                return fireTime;
+            }
+            candidate = candidate.plusDays(1);
+        }
+    }
+
+    @Override
+    public ZoneId zone() {
+        return zone;
+    }
+
+    @Override
+    public String toString() {
+        return "DailySchedule(" + timeOfDay + ", " + zone + ")";
+    }
+}
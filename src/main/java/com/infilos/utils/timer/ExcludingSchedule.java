@@ -0,0 +1,61 @@
+package com.infilos.utils.timer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.function.Predicate;
+
+/**
+ * Wrap a schedule and skip the fire times falling on excluded local dates.
+ */
+
+final class ExcludingSchedule implements Schedule {
+    /**
+     * Give up when every day of the following years is excluded.
+     */
+    private static final int SEARCH_DAYS = 366 * 8;
+
+    private final Schedule schedule;
+    private final Predicate<LocalDate> exclusion;
+
+    ExcludingSchedule(Schedule schedule, Predicate<LocalDate> exclusion) {
+        if (schedule == null || exclusion == null) {
+            throw new IllegalArgumentException("Schedule and exclusion must not be null");
+        }
+        this.schedule = schedule;
+        this.exclusion = exclusion;
+    }
+
+    @Override
+    public long next(long afterInMillis) {
+        ZoneId zone = schedule.zone();
+        long after = afterInMillis;
+
+        for (int skipped = 0; skipped < SEARCH_DAYS; skipped++) {
+            long fireTime = schedule.next(after);
+            if (fireTime == NEVER) {
+                return NEVER;
+            }
+
+            LocalDate date = Instant.ofEpochMilli(fireTime).atZone(zone).toLocalDate();
+            if (!exclusion.test(date)) {
+                return fireTime;
+            }
+
+            // Jump over the whole excluded day instead of walking through its fire times.
+            after = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+        }
+
+        return NEVER;
+    }
+
+    @Override
+    public ZoneId zone() {
+        return schedule.zone();
+    }
+
+    @Override
+    public String toString() {
+        return "ExcludingSchedule(" + schedule + ")";
+    }
+}
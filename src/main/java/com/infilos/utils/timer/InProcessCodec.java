@@ -0,0 +1,41 @@
+package com.infilos.utils.timer;
+
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * See {@link TimerTaskCodec#inProcess()}.
+ */
+
+final class InProcessCodec implements TimerTaskCodec {
+    static final InProcessCodec INSTANCE = new InProcessCodec();
+
+    private InProcessCodec() {
+    }
+
+    @Override
+    public Serializable encode(TimerTask task) {
+        return new Reference(task);
+    }
+
+    @Override
+    public TimerTask decode(Serializable payload) {
+        return ((Reference) payload).task;
+    }
+
+    private static final class Reference implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final transient TimerTask task;
+
+        private Reference(TimerTask task) {
+            this.task = task;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws NotSerializableException {
+            throw new NotSerializableException("In-process task " + task.getClass().getName()
+                + " can not leave the JVM, configure the PartitionedTimer with a serializing TimerTaskCodec");
+        }
+    }
+}
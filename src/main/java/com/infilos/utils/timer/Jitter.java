@@ -0,0 +1,47 @@
+package com.infilos.utils.timer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adjust the delay of a task before it is added into the wheel, so tasks armed at the same moment
+ * with the same delay spread over several buckets instead of expiring in a single burst.
+ */
+
+@FunctionalInterface
+public interface Jitter {
+
+    /**
+     * @param key the task's jitter key, may be null.
+     * @return the adjusted delay, never less than the given one.
+     */
+    long apply(long delayInMillis, Object key);
+
+    /**
+     * Add a random delay in [0, max].
+     */
+    static Jitter uniform(long maxInMillis) {
+        if (maxInMillis < 0) {
+            throw new IllegalArgumentException("Jitter must not be negative: " + maxInMillis);
+        }
+        return (delayInMillis, key) -> delayInMillis + ThreadLocalRandom.current().nextLong(maxInMillis + 1);
+    }
+
+    /**
+     * Add a delay in [0, window) derived from the key's hash, so the same key always gets the same offset.
+     * Falls back to a random offset for tasks without key.
+     */
+    static Jitter spread(long windowInMillis) {
+        if (windowInMillis <= 0) {
+            throw new IllegalArgumentException("Spread window must be positive: " + windowInMillis);
+        }
+        return (delayInMillis, key) -> {
+            if (key == null) {
+                return delayInMillis + ThreadLocalRandom.current().nextLong(windowInMillis);
+            }
+            // Mix the bits, close hash codes like sequential ids should still land far apart.
+            long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+            return delayInMillis + Math.floorMod(hash, windowInMillis);
+        };
+    }
+}
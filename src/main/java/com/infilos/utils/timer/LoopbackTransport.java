@@ -0,0 +1,50 @@
+package com.infilos.utils.timer;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process transport, delivers messages synchronously on the sender's thread.
+ * Stands in for a real network transport in tests and single JVM deployments.
+ */
+
+@ThreadSafe
+public final class LoopbackTransport implements TimerTransport {
+    private final Map<String, Receiver> receivers = new ConcurrentHashMap<>();
+
+    @Override
+    public void join(String nodeId, Receiver receiver) {
+        receivers.put(nodeId, receiver);
+        broadcastMembers();
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        if (receivers.remove(nodeId) != null) {
+            broadcastMembers();
+        }
+    }
+
+    @Override
+    public Set<String> members() {
+        return Collections.unmodifiableSet(new HashSet<>(receivers.keySet()));
+    }
+
+    @Override
+    public void send(String nodeId, TimerMessage message) {
+        Receiver receiver = receivers.get(nodeId);
+        if (receiver == null) {
+            throw new IllegalStateException("Node '" + nodeId + "' is not a member");
+        }
+        receiver.onMessage(message);
+    }
+
+    private synchronized void broadcastMembers() {
+        Set<String> members = members();
+        receivers.values().forEach(receiver -> receiver.onMembers(members));
+    }
+}
@@ -0,0 +1,248 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Serializable;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * One logical timer space over several nodes. The routing key of a task is its group tag, each key hashes
+ * to a partition, and each partition is owned by one member through rendezvous hashing, so membership
+ * changes only move the partitions of the joining or leaving node. Submits are routed to the owner's
+ * local {@link SystemTimer}, and pending tasks are handed over when their owner changes, eg. when a node leaves.
+ *
+ * Tasks without group stay on the node they are submitted to, until it leaves. Then they are spread over the remaining
+ * members, and so are their later re-arms, eg. of a PeriodTask still holding the departed timer.
+ * Pending tasks of a node that crashes without leaving are lost, there is no replication.
+ * Tasks cross the transport as the payload of the {@link TimerTaskCodec}, in-process by default.
+ * Jitter and slack are applied once on submit, handed over tasks keep their expiration.
+ *
+ * Usage, eg. new PartitionedTimer("node-1", new SystemTimer("TIMER"), transport).startup().submit("tenant-1", task, 1000L);
+ */
+
+@ThreadSafe
+public class PartitionedTimer implements Timer, TimerTransport.Receiver {
+    private final Logger log = LoggerFactory.getLogger(PartitionedTimer.class);
+
+    private final String nodeId;
+    private final SystemTimer local;
+    private final TimerTransport transport;
+    private final int partitions;
+    private final TimerTaskCodec codec;
+
+    /**
+     * Owner node of each partition, recomputed on membership changes.
+     */
+    private volatile String[] owners;
+    private volatile boolean joined = false;
+
+    public PartitionedTimer(String nodeId, SystemTimer local, TimerTransport transport, int partitions, TimerTaskCodec codec) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+        }
+        this.nodeId = nodeId;
+        this.local = local;
+        this.transport = transport;
+        this.partitions = partitions;
+        this.codec = codec;
+    }
+
+    public PartitionedTimer(String nodeId, SystemTimer local, TimerTransport transport, int partitions) {
+        this(nodeId, local, transport, partitions, TimerTaskCodec.inProcess());
+    }
+
+    public PartitionedTimer(String nodeId, SystemTimer local, TimerTransport transport) {
+        this(nodeId, local, transport, 256);
+    }
+
+    public int partitionOf(Object key) {
+        return (int) Math.floorMod(mix(key.hashCode()), (long) partitions);
+    }
+
+    /**
+     * @return the node owning the key, or null before joining.
+     */
+    public String ownerOf(Object key) {
+        String[] current = owners;
+        return current == null ? null : current[partitionOf(key)];
+    }
+
+    /**
+     * Submit the task to the owner of its group tag, or to the local timer if it has no group.
+     * Once this node has left, tasks without group are routed to the remaining members too.
+     */
+    @Override
+    public void submit(TimerTask task) {
+        Object key = task.getGroup();
+        if (key == null && (joined || owners == null)) {
+            local.submit(task);
+            return;
+        }
+        long expiration = Clock.epoch() + local.expirationOf(task) - Clock.now();
+        Serializable payload = codec.encode(task);
+        route(key != null ? key : payload, TimerMessage.submit(key, expiration, payload));
+    }
+
+    /**
+     * Submit the task with the key as its group tag.
+     */
+    public void submit(Object key, TimerTask task, long delayInMills) {
+        task.setGroup(key);
+        submit(Timer.task(task, delayInMills));
+    }
+
+    /**
+     * @return the number of cancelled tasks if the group is owned locally, -1 if the cancel is sent to its owner.
+     */
+    @Override
+    public int cancelGroup(Object tag) {
+        String owner = ownerOf(tag);
+        if (owner == null || owner.equals(nodeId)) {
+            return local.cancelGroup(tag);
+        }
+        route(tag, TimerMessage.cancelGroup(tag));
+        return -1;
+    }
+
+    @Override
+    public boolean advance(long millis) {
+        return local.advance(millis);
+    }
+
+    /**
+     * @return the number of tasks pending on this node.
+     */
+    @Override
+    public int count() {
+        return local.count();
+    }
+
+    @Override
+    public Timer startup() {
+        local.startup();
+        joined = true;
+        transport.join(nodeId, this);
+        return this;
+    }
+
+    /**
+     * Leave the members, handing over all the pending tasks, then shutdown the local timer.
+     */
+    @Override
+    public void shutdown() {
+        leave();
+        local.shutdown();
+    }
+
+    /**
+     * Leave the members and hand over all the pending tasks to their new owners.
+     * Nothing is handed over if this was the last member.
+     */
+    public void leave() {
+        joined = false;
+        transport.leave(nodeId);
+        owners = computeOwners(transport.members());
+        handOver(task -> true);
+    }
+
+    @Override
+    public void onMembers(Set<String> members) {
+        owners = computeOwners(members);
+        if (joined) {
+            handOver(task -> task.getGroup() != null && !nodeId.equals(ownerOf(task.getGroup())));
+        }
+    }
+
+    @Override
+    public void onMessage(TimerMessage message) {
+        // The sender routed it to us as the owner, accept it even if the views disagree for a moment,
+        // the next membership change hands it over again. Only forward once this node has left.
+        if (joined) {
+            handleLocally(message);
+        } else {
+            route(message.getKey() != null ? message.getKey() : message.getPayload(), message);
+        }
+    }
+
+    private void handOver(Predicate<TimerTask> filter) {
+        if (owners == null) {
+            return;
+        }
+        for (TimerItem timerItem : local.drain(filter)) {
+            TimerTask task = timerItem.getTimerTask();
+            Object key = task.getGroup();
+            long expiration = Clock.epoch() + timerItem.getExpiration() - Clock.now();
+            Serializable payload = codec.encode(task);
+            // Tasks without group are spread by their payload.
+            route(key != null ? key : payload, TimerMessage.submit(key, expiration, payload));
+        }
+    }
+
+    private void route(Object routingKey, TimerMessage message) {
+        String owner = ownerOf(routingKey);
+        if (owner == null || owner.equals(nodeId)) {
+            handleLocally(message);
+            return;
+        }
+        try {
+            transport.send(owner, message);
+        } catch (RuntimeException ex) {
+            // Never drop a task, keep it locally until the next membership change hands it over.
+            log.warn("Failed to send {} of key '{}' to node '{}', handle it locally: ", message.getType(), message.getKey(), owner, ex);
+            handleLocally(message);
+        }
+    }
+
+    private void handleLocally(TimerMessage message) {
+        switch (message.getType()) {
+            case SUBMIT:
+                TimerTask task = codec.decode(message.getPayload());
+                if (message.getKey() != null) {
+                    task.setGroup(message.getKey());
+                }
+                local.submitAt(task, Clock.now() + message.getExpiration() - Clock.epoch());
+                break;
+            case CANCEL_GROUP:
+                local.cancelGroup(message.getKey());
+                break;
+            default:
+                throw new IllegalStateException("Unknown message type: " + message.getType());
+        }
+    }
+
+    /**
+     * Rendezvous hashing, each partition goes to the member with the highest score.
+     */
+    private String[] computeOwners(Set<String> members) {
+        if (members.isEmpty()) {
+            return null;
+        }
+        String[] computed = new String[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            String owner = null;
+            long ownerScore = Long.MIN_VALUE;
+            for (String member : members) {
+                long score = mix(partition * 0x9E3779B97F4A7C15L ^ member.hashCode());
+                if (owner == null || score > ownerScore || (score == ownerScore && member.compareTo(owner) < 0)) {
+                    owner = member;
+                    ownerScore = score;
+                }
+            }
+            computed[partition] = owner;
+        }
+        return computed;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
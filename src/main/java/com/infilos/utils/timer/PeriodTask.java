@@ -18,13 +18,27 @@ public final class PeriodTask extends TimerTask {
         this.interval = interval;
     }
 
+    /**
+     * Randomize the start phase once with the jitter, eg. Jitter.uniform(interval), so periodic tasks
+     * created together do not fire together forever. Following intervals are not jittered.
+     *
+     * @param key the key of {@link Jitter#spread(long)}, eg. a connection id, so the same key always gets the same phase.
+     */
+    public PeriodTask(Timer timer, Runnable task, long delay, long interval, Jitter phase, Object key) {
+        this(timer, task, phase.apply(delay, key), interval);
+    }
+
+    public PeriodTask(Timer timer, Runnable task, long delay, long interval, Jitter phase) {
+        this(timer, task, delay, interval, phase, null);
+    }
+
     @Override
     public void run() {
         try {
             task.run();
         } finally {
             this.setDelay(interval);
-            this.timer.submit(this);
+            this.resubmit(timer);
         }
     }
 }
@@ -0,0 +1,89 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retry callables through the timer's wheel, bounding the retries in flight globally and per key.
+ * A call is in flight from its first failure until it succeeds or gives up, when the limit is reached
+ * a failed call gives up immediately instead of flooding the timer during downstream outages.
+ *
+ * Attempts run on the given executor, by default on the timer's expiry thread, where a call hanging
+ * during an outage stalls every other task of the timer. Pass an executor for calls that may block.
+ *
+ * Usage, eg. new RetryScheduler(timer, 1000, 10).retry(host, () -> call(host), BackoffPolicy.decorrelated(100L, 10000L));
+ */
+
+@ThreadSafe
+public final class RetryScheduler {
+    private final Timer timer;
+    private final int maxInFlight;
+    private final int maxInFlightPerKey;
+    private final Executor executor;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final ConcurrentMap<Object, Integer> inFlightByKey = new ConcurrentHashMap<>();
+
+    public RetryScheduler(Timer timer, int maxInFlight, int maxInFlightPerKey, Executor executor) {
+        this.timer = timer;
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerKey = maxInFlightPerKey;
+        this.executor = executor;
+    }
+
+    public RetryScheduler(Timer timer, int maxInFlight, int maxInFlightPerKey) {
+        this(timer, maxInFlight, maxInFlightPerKey, Runnable::run);
+    }
+
+    public <T> CompletableFuture<T> retry(Callable<T> callable, BackoffPolicy policy) {
+        return retry(null, callable, policy);
+    }
+
+    public <T> CompletableFuture<T> retry(Object key, Callable<T> callable, BackoffPolicy policy) {
+        return new RetryTask<>(timer, callable, policy, this, executor, key).start();
+    }
+
+    /**
+     * @return the number of calls currently retrying.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    boolean acquire(Object key) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        if (key != null) {
+            boolean[] acquired = {false};
+            inFlightByKey.compute(key, (k, count) -> {
+                int current = count == null ? 0 : count;
+                if (current >= maxInFlightPerKey) {
+                    return count;
+                }
+                acquired[0] = true;
+                return current + 1;
+            });
+            if (!acquired[0]) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void release(Object key) {
+        if (key != null) {
+            inFlightByKey.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+        }
+        inFlight.decrementAndGet();
+    }
+}
@@ -0,0 +1,116 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One retried call, the same task is re-armed for each attempt, which runs on the scheduler's executor.
+ */
+
+final class RetryTask<T> extends TimerTask {
+    private final Timer timer;
+    private final Callable<T> callable;
+    private final BackoffPolicy policy;
+    private final RetryScheduler scheduler;
+    private final Executor executor;
+    private final Object key;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final AtomicBoolean holding = new AtomicBoolean(false);
+
+    /**
+     * Only touched by the running attempt, attempts never overlap.
+     */
+    private int attempts = 0;
+    private long previousDelay = 0L;
+    private long startedAt;
+
+    RetryTask(Timer timer, Callable<T> callable, BackoffPolicy policy, RetryScheduler scheduler, Executor executor, Object key) {
+        this.timer = timer;
+        this.callable = callable;
+        this.policy = policy;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.key = key;
+    }
+
+    CompletableFuture<T> start() {
+        startedAt = Clock.now();
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                cancel();
+                release();
+            }
+        });
+        this.setDelay(0L);
+        this.timer.submit(this);
+        return future;
+    }
+
+    @Override
+    public void run() {
+        if (future.isDone()) {
+            release();
+            return;
+        }
+
+        try {
+            executor.execute(this::attempt);
+        } catch (RejectedExecutionException ex) {
+            release();
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private void attempt() {
+        T result;
+        try {
+            result = callable.call();
+        } catch (Throwable ex) {
+            retry(ex);
+            return;
+        }
+        release();
+        future.complete(result);
+    }
+
+    private void retry(Throwable ex) {
+        attempts++;
+        long delay = policy.nextDelay(previousDelay);
+        if (!policy.canRetry(attempts, Clock.now() + delay - startedAt) || !hold()) {
+            release();
+            future.completeExceptionally(ex);
+            return;
+        }
+
+        previousDelay = delay;
+        this.setDelay(delay);
+        this.resubmit(timer);
+    }
+
+    private boolean hold() {
+        if (holding.get()) {
+            return true;
+        }
+        if (!scheduler.acquire(key)) {
+            return false;
+        }
+        holding.set(true);
+        if (future.isDone()) {
+            // Cancelled meanwhile, its release may have missed the permit.
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    private void release() {
+        if (holding.compareAndSet(true, false)) {
+            scheduler.release(key);
+        }
+    }
+}
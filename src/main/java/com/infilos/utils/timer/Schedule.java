@@ -0,0 +1,61 @@
+package com.infilos.utils.timer;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.function.Predicate;
+
+/**
+ * Calendar based schedule, computes fire times as wall clock epoch milliseconds.
+ */
+
+public interface Schedule {
+
+    /**
+     * Returned by {@link #next(long)} when the schedule will never fire again.
+     */
+    long NEVER = -1L;
+
+    /**
+     * @return the first fire time strictly after the given epoch milliseconds, or {@link #NEVER}.
+     */
+    long next(long afterInMillis);
+
+    /**
+     * @return the zone used to interpret the calendar fields of this schedule.
+     */
+    ZoneId zone();
+
+    /**
+     * Skip every fire time whose local date, in this schedule's zone, matches the given exclusion.
+     */
+    default Schedule excluding(Predicate<LocalDate> exclusion) {
+        return new ExcludingSchedule(this, exclusion);
+    }
+
+    /**
+     * Only fire on the business days of the given calendar.
+     */
+    default Schedule onBusinessDays(BusinessCalendar calendar) {
+        return excluding(date -> !calendar.isBusinessDay(date));
+    }
+
+    /**
+     * Below are factories. Usage, eg. Schedule.cron("0 30 9 * * MON-FRI", ZoneId.of("Asia/Shanghai"));
+     */
+    static Schedule cron(String expression, ZoneId zone) {
+        return CronSchedule.parse(expression, zone);
+    }
+
+    static Schedule cron(String expression) {
+        return CronSchedule.parse(expression, ZoneId.systemDefault());
+    }
+
+    static Schedule daily(LocalTime timeOfDay, ZoneId zone) {
+        return new DailySchedule(timeOfDay, zone);
+    }
+
+    static Schedule daily(LocalTime timeOfDay) {
+        return new DailySchedule(timeOfDay, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,75 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+/**
+ * Task fired at the calendar times of a {@link Schedule}, the next fire time is computed
+ * from the previous one after each run and the task is resubmitted to the wheel, far away
+ * fire times naturally fall into the overflow wheels.
+ */
+
+public final class ScheduleTask extends TimerTask {
+    /**
+     * The wheel counts delays with the monotonic clock, while schedules use the wall clock,
+     * when they drift apart more than this the task is re-armed for the remaining time instead of running early.
+     */
+    private static final long EARLY_TOLERANCE_MILLIS = 1000L;
+
+    private final Timer timer;
+    private final Runnable task;
+    private final Schedule schedule;
+
+    private volatile boolean cancelled = false;
+    private volatile long fireTime;
+
+    public ScheduleTask(Timer timer, Runnable task, Schedule schedule) {
+        this.timer = timer;
+        this.task = task;
+        this.schedule = schedule;
+
+        long now = Clock.epoch();
+        this.fireTime = schedule.next(now);
+        this.setDelay(Math.max(fireTime - now, 0L));
+    }
+
+    /**
+     * @return the pending fire time as epoch milliseconds, or {@link Schedule#NEVER}.
+     */
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    public boolean isExhausted() {
+        return fireTime == Schedule.NEVER;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        super.cancel();
+    }
+
+    @Override
+    public void run() {
+        long now = Clock.epoch();
+        if (fireTime - now > EARLY_TOLERANCE_MILLIS) {
+            rearm(now);
+            return;
+        }
+
+        try {
+            task.run();
+        } finally {
+            // Missed fire times, eg. when the executor was blocked, are skipped rather than replayed.
+            fireTime = schedule.next(Math.max(fireTime, Clock.epoch()));
+            rearm(Clock.epoch());
+        }
+    }
+
+    private void rearm(long now) {
+        if (!cancelled && fireTime != Schedule.NEVER) {
+            this.setDelay(Math.max(fireTime - now, 0L));
+            this.resubmit(timer);
+        }
+    }
+}
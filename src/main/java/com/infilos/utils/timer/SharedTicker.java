@@ -0,0 +1,113 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One ticking thread, delay queue and expiry pool shared by many lightweight timers, for processes
+ * creating thousands of small timers, eg. one per tenant. Each timer keeps its own wheel, counter and
+ * shutdown, but starts no thread.
+ *
+ * Usage, eg. SharedTicker ticker = new SharedTicker("TENANTS", 4).startup(); Timer timer = ticker.create("TENANT-1");
+ */
+
+@ThreadSafe
+public class SharedTicker extends TickThread {
+    private final Logger log = LoggerFactory.getLogger(SharedTicker.class);
+
+    private final ExecutorService executor;
+    private final DelayQueue<TimerTasks> delayQueue = new DelayQueue<>();
+
+    public SharedTicker(String name, int threads) {
+        super(name);
+        AtomicInteger threadId = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name + "-" + threadId.incrementAndGet());
+            thread.setDaemon(false);
+            thread.setUncaughtExceptionHandler((t, e) -> {
+                log.error("Uncaught exception in thread '{}':", t.getName(), e);
+            });
+            return thread;
+        });
+    }
+
+    public SharedTicker(String name) {
+        this(name, 1);
+    }
+
+    public Timer create(String name, long tickInMills, int wheelSize) {
+        return new SystemTimer(name, tickInMills, wheelSize, Clock.now(), this);
+    }
+
+    public Timer create(String name) {
+        return create(name, 1L, 20);
+    }
+
+    public SharedTicker startup() {
+        start();
+        return this;
+    }
+
+    /**
+     * Stop ticking all the timers, leaving their pending tasks unexecuted.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        executor.shutdown();
+    }
+
+    @Override
+    public void invoke() {
+        advance(200L);
+    }
+
+    /**
+     * Advance the expired buckets of all the timers, each flushed under its own timer's lock.
+     */
+    public boolean advance(long timeInMills) {
+        try {
+            TimerTasks bucket = delayQueue.poll(timeInMills, TimeUnit.MILLISECONDS);
+            if (bucket!=null) {
+                Object event = TimerEvents.beginTick();
+                long lag = Clock.now() - bucket.getExpiration();
+                int flushed = 0;
+                while (bucket!=null) {
+                    bucket.getOwner().advanceBucket(bucket);
+                    flushed++;
+                    bucket = delayQueue.poll();
+                }
+                TimerEvents.commitTick(event, getName(), flushed, lag);
+                return true;
+            } else {
+                return false;
+            }
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Remove the buckets of a shutdown timer from the queue, emptied buckets keep their expiration
+     * and would otherwise hold the timer until they expire.
+     */
+    void release(SystemTimer timer) {
+        delayQueue.removeIf(bucket -> bucket.getOwner() == timer);
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    DelayQueue<TimerTasks> getDelayQueue() {
+        return delayQueue;
+    }
+}
@@ -5,6 +5,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -12,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * @author infilos on 2020-08-07.
@@ -23,10 +30,27 @@ public class SystemTimer implements Timer {
 
     private final String executorName;
     private final ExecutorService executor;
-    private final DelayQueue<TimerTasks> delayQueue = new DelayQueue<>();
+    private final DelayQueue<TimerTasks> delayQueue;
     private final AtomicInteger taskCounter = new AtomicInteger(0);
+    private final ConcurrentMap<Object, TimerGroup> groups = new ConcurrentHashMap<>();
     private final TimingWheel timingWheel;
     private final TimingTicker timingTicker;
+    private final SharedTicker sharedTicker;
+    private volatile TimerWatchdog watchdog;
+    private volatile Jitter jitter;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Number of items cascaded into finer wheels by the bucket being flushed, only touched while ticking.
+     */
+    private int cascaded = 0;
+
+    private final Function<TimerItem, Void> reinsert = timerTaskItem -> {
+        if (addTimerItem(timerTaskItem)) {
+            cascaded++;
+        }
+        return null;
+    };
 
     /**
      * Locks used to protect data structures while ticking
@@ -36,17 +60,32 @@ public class SystemTimer implements Timer {
     private final ReentrantReadWriteLock.WriteLock writeLock = readWriteLock.writeLock();
 
     public SystemTimer(String name, long tickInMills, int wheelSize, long startInMills) {
+        this(name, tickInMills, wheelSize, startInMills, null);
+    }
+
+    /**
+     * Lightweight timer ticked by the shared ticker, it owns neither thread nor executor.
+     */
+    SystemTimer(String name, long tickInMills, int wheelSize, long startInMills, SharedTicker sharedTicker) {
         this.executorName = name;
-        this.executor = Executors.newFixedThreadPool(1, r -> {
-            Thread thread = new Thread(r, executorName);
-            thread.setDaemon(false);
-            thread.setUncaughtExceptionHandler((t, e) -> {
-                log.error("Uncaught exception in thread '{}':", executorName, e);
+        this.sharedTicker = sharedTicker;
+        if (sharedTicker == null) {
+            this.executor = Executors.newFixedThreadPool(1, r -> {
+                Thread thread = new Thread(r, executorName);
+                thread.setDaemon(false);
+                thread.setUncaughtExceptionHandler((t, e) -> {
+                    log.error("Uncaught exception in thread '{}':", executorName, e);
+                });
+                return thread;
             });
-            return thread;
-        });
-        timingWheel = new TimingWheel(tickInMills, wheelSize, startInMills, taskCounter, delayQueue);
-        timingTicker = new TimingTicker(executorName, this);
+            this.delayQueue = new DelayQueue<>();
+            this.timingTicker = new TimingTicker(executorName, this);
+        } else {
+            this.executor = sharedTicker.getExecutor();
+            this.delayQueue = sharedTicker.getDelayQueue();
+            this.timingTicker = null;
+        }
+        timingWheel = new TimingWheel(tickInMills, wheelSize, startInMills, taskCounter, delayQueue, this);
     }
 
     public SystemTimer(String name, long tickInMills, int wheelSize) {
@@ -58,36 +97,121 @@ public class SystemTimer implements Timer {
     }
 
 
+    /**
+     * Attach an opt-in watchdog before startup, it reports slow tasks and tick stalls of this timer.
+     */
+    public SystemTimer watchdog(TimerWatchdog watchdog) {
+        watchdog.watch(this);
+        this.watchdog = watchdog;
+        return this;
+    }
+
+    /**
+     * Jitter applied to every submitted task with a positive delay, unless the task has its own.
+     * Tasks re-arming themselves from their run, eg. a PeriodTask, are not jittered again.
+     */
+    public SystemTimer jitter(Jitter jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Tasks submitted after shutdown are dropped, so re-arming tasks like PeriodTask stop with the timer.
+     */
     @Override
     public void submit(TimerTask task) {
         readLock.lock();
         try {
-            addTimerItem(new TimerItem(task, task.getDelay() + Clock.now()));
+            if (shutdown) {
+                log.debug("Timer '{}' is shutdown, drop task {}", executorName, task);
+                return;
+            }
+            insert(task, expirationOf(task));
         } finally {
             readLock.unlock();
         }
     }
 
-    private final Function<TimerItem, Void> reinsert = timerTaskItem -> {
-        addTimerItem(timerTaskItem);
-        return null;
-    };
+    /**
+     * Submit the task expiring at the given monotonic time as is, without applying jitter or slack again,
+     * eg. a task handed over from another timer.
+     */
+    void submitAt(TimerTask task, long expirationInMillis) {
+        readLock.lock();
+        try {
+            if (shutdown) {
+                log.debug("Timer '{}' is shutdown, drop task {}", executorName, task);
+                return;
+            }
+            insert(task, expirationInMillis);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void insert(TimerTask task, long expirationInMillis) {
+        TimerItem timerItem = new TimerItem(task, expirationInMillis);
+        if (task.getGroup() != null) {
+            joinGroup(task.getGroup(), timerItem);
+        }
+        addTimerItem(timerItem);
+    }
+
+    @Override
+    public int cancelGroup(Object tag) {
+        TimerGroup group = groups.remove(tag);
+        if (group == null) {
+            return 0;
+        }
+
+        Object event = TimerEvents.beginCancel();
+        int cancelled = 0;
+        // Detached items count as cancelled at once, then they are unlinked with one monitor per bucket.
+        // Items flushed meanwhile, eg. cascading into another bucket, are dropped by the wheel since cancelled.
+        Map<TimerTasks, List<TimerItem>> buckets = new IdentityHashMap<>();
+        for (TimerItem timerItem : group.close()) {
+            if (timerItem.getTimerTask().detach(timerItem)) {
+                cancelled++;
+                TimerTasks bucket = timerItem.getTimerItems();
+                if (bucket != null) {
+                    buckets.computeIfAbsent(bucket, key -> new ArrayList<>()).add(timerItem);
+                }
+            }
+        }
+        buckets.forEach(TimerTasks::removeAll);
+        TimerEvents.commitCancel(event, executorName, tag, cancelled);
+        return cancelled;
+    }
+
+    private void joinGroup(Object tag, TimerItem timerItem) {
+        // Retry when racing with the group being drained or cancelled, the item then joins a new group.
+        while (!groups.computeIfAbsent(tag, key -> new TimerGroup(key, groups)).add(timerItem)) {
+            Thread.yield();
+        }
+    }
 
     @Override
     public boolean advance(long timeInMills) {
+        if (sharedTicker != null) {
+            return sharedTicker.advance(timeInMills);
+        }
         try {
             TimerTasks bucket = delayQueue.poll(timeInMills, TimeUnit.MILLISECONDS);
             if (bucket!=null) {
+                Object event = TimerEvents.beginTick();
+                long lag = Clock.now() - bucket.getExpiration();
+                int flushed = 0;
                 writeLock.lock();
                 try {
                     while (bucket!=null) {
-                        timingWheel.advanceClock(bucket.getExpiration());
-                        bucket.flush(reinsert);
+                        flushBucket(bucket);
+                        flushed++;
                         bucket = delayQueue.poll();
                     }
                 } finally {
                     writeLock.unlock();
                 }
+                TimerEvents.commitTick(event, executorName, flushed, lag);
                 return true;
             } else {
                 return false;
@@ -97,6 +221,27 @@ public class SystemTimer implements Timer {
         }
     }
 
+    /**
+     * Called by the shared ticker for the expired buckets of this timer.
+     */
+    void advanceBucket(TimerTasks bucket) {
+        writeLock.lock();
+        try {
+            flushBucket(bucket);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushBucket(TimerTasks bucket) {
+        timingWheel.advanceClock(bucket.getExpiration());
+        cascaded = 0;
+        bucket.flush(reinsert);
+        if (cascaded > 0) {
+            TimerEvents.commitCascade(executorName, bucket.getLevel(), cascaded);
+        }
+    }
+
     @Override
     public int count() {
         return taskCounter.get();
@@ -104,22 +249,107 @@ public class SystemTimer implements Timer {
 
     @Override
     public Timer startup() {
-        timingTicker.start();
+        if (timingTicker != null) {
+            timingTicker.start();
+        }
+        if (watchdog != null) {
+            watchdog.start();
+        }
         return this;
     }
 
     @Override
     public void shutdown() {
-        timingTicker.shutdown();
-        executor.shutdown();
+        shutdown = true;
+        if (watchdog != null) {
+            watchdog.shutdown();
+        }
+        if (timingTicker != null) {
+            timingTicker.shutdown();
+            executor.shutdown();
+        } else {
+            // The shared ticker and executor keep running for the other timers, only drop our pending tasks and buckets.
+            writeLock.lock();
+            try {
+                timingWheel.clear();
+                sharedTicker.release(this);
+            } finally {
+                writeLock.unlock();
+            }
+        }
     }
 
-    private void addTimerItem(TimerItem timerTaskItem) {
+    /**
+     * Remove the pending items whose task matches the filter without running them, eg. to hand them over to another timer.
+     */
+    List<TimerItem> drain(Predicate<TimerTask> filter) {
+        List<TimerItem> drained = new ArrayList<>();
+        writeLock.lock();
+        try {
+            timingWheel.drain(timerTaskItem -> !timerTaskItem.cancelled() && filter.test(timerTaskItem.getTimerTask()), timerTaskItem -> {
+                timerTaskItem.leaveGroup();
+                drained.add(timerTaskItem);
+                return null;
+            });
+        } finally {
+            writeLock.unlock();
+        }
+        return drained;
+    }
+
+    public String getName() {
+        return executorName;
+    }
+
+    Thread getTickThread() {
+        return timingTicker != null ? timingTicker : sharedTicker;
+    }
+
+    /**
+     * @return how long the earliest bucket has been expired without being advanced, 0 if none.
+     */
+    long tickLag() {
+        TimerTasks head = delayQueue.peek();
+        if (head == null) {
+            return 0L;
+        }
+        long expiration = head.getExpiration();
+        return expiration < 0 ? 0L : Long.max(Clock.now() - expiration, 0L);
+    }
+
+    /**
+     * @return the monotonic expiration of the task with jitter and slack applied.
+     */
+    long expirationOf(TimerTask task) {
+        long expiration = jitteredDelay(task) + Clock.now();
+        return task.getSlack() > 0 ? timingWheel.coarsen(expiration, task.getSlack()) : expiration;
+    }
+
+    private long jitteredDelay(TimerTask task) {
+        long delay = task.getDelay();
+        if (delay <= 0) {
+            return delay;
+        }
+        // The timer's jitter only spreads submissions, tasks re-arming themselves like PeriodTask keep their period.
+        Jitter current = task.getJitter() != null ? task.getJitter() : task.isRearming() ? null : jitter;
+        return current == null ? delay : current.apply(delay, task.getJitterKey());
+    }
+
+    /**
+     * @return true if the item is added into the wheel, false if it is executed or dropped.
+     */
+    private boolean addTimerItem(TimerItem timerTaskItem) {
         if (!timingWheel.add(timerTaskItem)) {
             // Already expired or cancelled
+            timerTaskItem.leaveGroup();
             if (!timerTaskItem.cancelled()) {
-                executor.submit(timerTaskItem.getTimerTask());
+                TimerTask task = timerTaskItem.getTimerTask();
+                TimerWatchdog current = watchdog;
+                Runnable runnable = current == null ? task : current.wrap(task);
+                executor.submit(TimerEvents.expiry(executorName, task, runnable, timerTaskItem.getExpiration()));
             }
+            return false;
         }
+        return true;
     }
 }
@@ -0,0 +1,41 @@
+package com.infilos.utils.timer;
+
+/**
+ * Hooks of the timer hot paths for JDK Flight Recorder. This java 8 version does nothing and is inlined away,
+ * the multi-release jar replaces it on java 11+ by one emitting JFR events, see src/main/java11.
+ */
+
+final class TimerEvents {
+    private TimerEvents() {
+    }
+
+    /**
+     * @return an event handle to pass to {@link #commitTick}, or null when not recording.
+     */
+    static Object beginTick() {
+        return null;
+    }
+
+    static void commitTick(Object event, String timer, int buckets, long lagInMillis) {
+    }
+
+    static void commitCascade(String timer, int level, int count) {
+    }
+
+    /**
+     * @return the runnable wrapped to record its expiry, or itself when not recording.
+     */
+    static Runnable expiry(String timer, TimerTask task, Runnable runnable, long expirationInMillis) {
+        return runnable;
+    }
+
+    /**
+     * @return an event handle to pass to {@link #commitCancel}, or null when not recording.
+     */
+    static Object beginCancel() {
+        return null;
+    }
+
+    static void commitCancel(Object event, String timer, Object group, int count) {
+    }
+}
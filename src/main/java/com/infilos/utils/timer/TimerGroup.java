@@ -0,0 +1,94 @@
+package com.infilos.utils.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pending timer items sharing a group tag, linked through their group links alongside the bucket links,
+ * so a whole group can be cancelled without holding the task references.
+ */
+
+final class TimerGroup {
+    private final Object tag;
+    private final ConcurrentMap<Object, TimerGroup> owner;
+    private final TimerItem root;
+    private int size = 0;
+
+    /**
+     * Set once the group is cancelled or drained and removed from the timer, items must join a new one.
+     */
+    private boolean closed = false;
+
+    /**
+     * TimerGroup forms a doubly linked cyclic list using a dummy root entry, same as {@link TimerTasks}.
+     */
+    TimerGroup(Object tag, ConcurrentMap<Object, TimerGroup> owner) {
+        this.tag = tag;
+        this.owner = owner;
+        this.root = new TimerItem(null, -1L);
+        this.root.groupNext = root;
+        this.root.groupPrev = root;
+    }
+
+    /**
+     * @return false if the group is already closed.
+     */
+    synchronized boolean add(TimerItem item) {
+        if (closed) {
+            return false;
+        }
+        TimerItem tail = root.groupPrev;
+        item.groupNext = root;
+        item.groupPrev = tail;
+        item.setGroup(this);
+        tail.groupNext = item;
+        root.groupPrev = item;
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove the item, and drop the group from its timer once it becomes empty.
+     */
+    void remove(TimerItem item) {
+        boolean drained = false;
+        synchronized (this) {
+            if (item.getGroup() == this) {
+                unlink(item);
+                if (size == 0) {
+                    closed = true;
+                    drained = true;
+                }
+            }
+        }
+        if (drained) {
+            owner.remove(tag, this);
+        }
+    }
+
+    /**
+     * Close the group and detach all its items.
+     */
+    synchronized List<TimerItem> close() {
+        closed = true;
+        List<TimerItem> items = new ArrayList<>(size);
+        TimerItem item = root.groupNext;
+        while (item != root) {
+            TimerItem next = item.groupNext;
+            unlink(item);
+            items.add(item);
+            item = next;
+        }
+        return items;
+    }
+
+    private void unlink(TimerItem item) {
+        item.groupNext.groupPrev = item.groupPrev;
+        item.groupPrev.groupNext = item.groupNext;
+        item.groupNext = null;
+        item.groupPrev = null;
+        item.setGroup(null);
+        size--;
+    }
+}
@@ -14,6 +14,10 @@ public class TimerItem implements Comparable<TimerItem> {
     TimerItem next;
     TimerItem prev;
 
+    private volatile TimerGroup group;
+    TimerItem groupNext;
+    TimerItem groupPrev;
+
     public TimerItem(TimerTask task, long expirationInMills) {
         // if this timerTask is already held by an existing timer task item,
         // setTimerTaskItem will remove it.
@@ -40,6 +44,16 @@ public class TimerItem implements Comparable<TimerItem> {
         }
     }
 
+    /**
+     * Remove from its group if any, once the item is cancelled or expired.
+     */
+    void leaveGroup() {
+        TimerGroup current = group;
+        if (current != null) {
+            current.remove(this);
+        }
+    }
+
     @Override
     public int compareTo(@Nonnull TimerItem that) {
         return Long.compare(this.expiration, that.expiration);
@@ -60,4 +74,12 @@ public class TimerItem implements Comparable<TimerItem> {
     void setTimerItems(TimerTasks list) {
         this.list = list;
     }
+
+    TimerGroup getGroup() {
+        return group;
+    }
+
+    void setGroup(TimerGroup group) {
+        this.group = group;
+    }
 }
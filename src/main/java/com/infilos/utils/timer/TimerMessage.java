@@ -0,0 +1,64 @@
+package com.infilos.utils.timer;
+
+import java.io.Serializable;
+
+/**
+ * Message exchanged between the nodes of a {@link PartitionedTimer}. Expirations are wall clock epoch milliseconds,
+ * since the monotonic clocks of different nodes are not comparable. The task travels as the payload of a
+ * {@link TimerTaskCodec}, and the key must be serializable too for transports crossing the JVM boundary.
+ */
+
+public final class TimerMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        /**
+         * Submit the task to the key's owner, either a new submission or a handed over pending task.
+         * The key is null for handed over tasks without group.
+         */
+        SUBMIT,
+        /**
+         * Cancel the pending tasks of the key's group on its owner.
+         */
+        CANCEL_GROUP
+    }
+
+    private final Type type;
+    private final Object key;
+    private final long expirationInMillis;
+    private final Serializable payload;
+
+    private TimerMessage(Type type, Object key, long expirationInMillis, Serializable payload) {
+        this.type = type;
+        this.key = key;
+        this.expirationInMillis = expirationInMillis;
+        this.payload = payload;
+    }
+
+    public static TimerMessage submit(Object key, long expirationInMillis, Serializable payload) {
+        return new TimerMessage(Type.SUBMIT, key, expirationInMillis, payload);
+    }
+
+    public static TimerMessage cancelGroup(Object key) {
+        return new TimerMessage(Type.CANCEL_GROUP, key, -1L, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getExpiration() {
+        return expirationInMillis;
+    }
+
+    /**
+     * @return the encoded task, see {@link TimerTaskCodec#decode(Serializable)}.
+     */
+    public Serializable getPayload() {
+        return payload;
+    }
+}
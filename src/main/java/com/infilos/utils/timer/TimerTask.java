@@ -1,18 +1,36 @@
 package com.infilos.utils.timer;
 
+import com.infilos.utils.Timer;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * @author infilos on 2020-08-07.
  */
 
 public abstract class TimerTask implements Runnable {
+    private static final AtomicReferenceFieldUpdater<TimerTask, TimerItem> TIMER_ITEM =
+        AtomicReferenceFieldUpdater.newUpdater(TimerTask.class, TimerItem.class, "timerItem");
+
     protected long delayInMillis = 10 * 1000; // default as 10 seconds
 
-    private TimerItem timerItem = null;
+    private volatile TimerItem timerItem = null;
+
+    private long slackInMillis = 0L;
+    private Jitter jitter = null;
+    private Object jitterKey = null;
+
+    /**
+     * Set while the task re-arms itself from its run, the timer's jitter is then not applied again.
+     */
+    private volatile boolean rearming = false;
+    private Object group = null;
 
     public void cancel() {
         synchronized (this) {
             if (timerItem!=null) {
                 timerItem.remove();
+                timerItem.leaveGroup();
             }
             timerItem = null;
         }
@@ -24,6 +42,7 @@ public abstract class TimerTask implements Runnable {
         synchronized (this) {
             if (timerItem!=null && timerItem!=item) {
                 timerItem.remove();
+                timerItem.leaveGroup();
             }
             timerItem = item;
         }
@@ -33,6 +52,15 @@ public abstract class TimerTask implements Runnable {
         return timerItem;
     }
 
+    /**
+     * Detach the item without taking this task's monitor, the caller unlinks it from its bucket and group.
+     *
+     * @return false if the task is already cancelled or re-armed with another item.
+     */
+    boolean detach(TimerItem item) {
+        return TIMER_ITEM.compareAndSet(this, item, null);
+    }
+
     public long getDelay() {
         return delayInMillis;
     }
@@ -40,4 +68,68 @@ public abstract class TimerTask implements Runnable {
     public void setDelay(long delayInMillis) {
         this.delayInMillis = delayInMillis;
     }
+
+    public long getSlack() {
+        return slackInMillis;
+    }
+
+    /**
+     * Acceptable lateness of this task, like linux timer slack. The task may fire up to slack later
+     * than its delay, which lets the wheel put it directly into a coarser bucket shared with nearby
+     * deadlines, instead of cascading it down through the finer wheels.
+     */
+    public void setSlack(long slackInMillis) {
+        this.slackInMillis = slackInMillis;
+    }
+
+    public Object getGroup() {
+        return group;
+    }
+
+    /**
+     * Tag of the group this task joins on each submission, eg. a connection id, see {@link com.infilos.utils.Timer#cancelGroup(Object)}.
+     */
+    public void setGroup(Object group) {
+        this.group = group;
+    }
+
+    public Jitter getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Submit this task again from its own run, eg. for the next period, without the timer's jitter.
+     * Submitting it by {@link Timer#submit(TimerTask)}, eg. after a reconnect, is jittered as a new task.
+     */
+    void resubmit(Timer timer) {
+        rearming = true;
+        try {
+            timer.submit(this);
+        } finally {
+            rearming = false;
+        }
+    }
+
+    boolean isRearming() {
+        return rearming;
+    }
+
+    public Object getJitterKey() {
+        return jitterKey;
+    }
+
+    /**
+     * Jitter applied to each submission of this task, overrides the timer's one.
+     */
+    public void setJitter(Jitter jitter) {
+        setJitter(jitter, null);
+    }
+
+    /**
+     * Jitter applied to each submission of this task, with the key used by {@link Jitter#spread(long)}.
+     */
+    public void setJitter(Jitter jitter, Object key) {
+        this.jitter = jitter;
+        this.jitterKey = key;
+    }
 }
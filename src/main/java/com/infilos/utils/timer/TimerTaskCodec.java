@@ -0,0 +1,44 @@
+package com.infilos.utils.timer;
+
+import java.io.Serializable;
+
+/**
+ * Converts the tasks of a {@link PartitionedTimer} into the payload of a {@link TimerMessage} and back.
+ * Only the task itself is carried, its expiration travels in the message and its group is restored from the message key.
+ */
+
+public interface TimerTaskCodec {
+
+    Serializable encode(TimerTask task);
+
+    TimerTask decode(Serializable payload);
+
+    /**
+     * Pass the task by reference, for transports delivering inside the JVM like {@link LoopbackTransport}.
+     * Serializing the payload fails, so a remote transport can not silently lose the task.
+     */
+    static TimerTaskCodec inProcess() {
+        return InProcessCodec.INSTANCE;
+    }
+
+    /**
+     * Serialize the task itself, every task must implement {@link Serializable}.
+     * Fields of {@link TimerTask} like the delay, slack or jitter are not serialized.
+     */
+    static TimerTaskCodec serializable() {
+        return new TimerTaskCodec() {
+            @Override
+            public Serializable encode(TimerTask task) {
+                if (!(task instanceof Serializable)) {
+                    throw new IllegalArgumentException("Task is not serializable: " + task.getClass().getName());
+                }
+                return (Serializable) task;
+            }
+
+            @Override
+            public TimerTask decode(Serializable payload) {
+                return (TimerTask) payload;
+            }
+        };
+    }
+}
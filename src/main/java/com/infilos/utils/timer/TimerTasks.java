@@ -1,40 +1,69 @@
 package com.infilos.utils.timer;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * @author infilos on 2020-08-07.
  */
 
 public class TimerTasks implements Delayed {
+    /**
+     * Field updater instead of an AtomicLong per bucket, to keep buckets compact.
+     */
+    private static final AtomicLongFieldUpdater<TimerTasks> EXPIRATION =
+        AtomicLongFieldUpdater.newUpdater(TimerTasks.class, "expiration");
+
     private final TimerItem root;
-    private final AtomicLong expiration;
     private final AtomicInteger taskCounter;
+    private final int level;
+    private final SystemTimer owner;
+    private volatile long expiration = -1L;
 
     /**
      * TimerTasks forms a doubly linked cyclic list using a dummy root entry
      * - root.next points to the head
      * - root.prev points to the tail
      */
-    public TimerTasks(AtomicInteger taskCounter) {
+    public TimerTasks(AtomicInteger taskCounter, int level, SystemTimer owner) {
         this.root = new TimerItem(null, -1L);
         this.root.next = root;
         this.root.prev = root;
-        this.expiration = new AtomicLong(-1L);
         this.taskCounter = taskCounter;
+        this.level = level;
+        this.owner = owner;
+    }
+
+    public TimerTasks(AtomicInteger taskCounter) {
+        this(taskCounter, 0, null);
+    }
+
+    /**
+     * @return level of the wheel owning this bucket, 0 for the finest one.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the timer whose wheel owns this bucket, used by {@link SharedTicker} to flush it, may be null.
+     */
+    SystemTimer getOwner() {
+        return owner;
     }
 
     public boolean setExpiration(long expirationInMillis) {
-        return expiration.getAndSet(expirationInMillis)!=expirationInMillis;
+        return EXPIRATION.getAndSet(this, expirationInMillis)!=expirationInMillis;
     }
 
     public long getExpiration() {
-        return expiration.get();
+        return expiration;
     }
 
     public synchronized void foreach(Function<TimerTask, Void> func) {
@@ -84,29 +113,68 @@ public class TimerTasks implements Delayed {
         synchronized (this) {
             synchronized (timerItem) {
                 if (timerItem.getTimerItems()==this) {
-                    timerItem.next.prev = timerItem.prev;
-                    timerItem.prev.next = timerItem.next;
-                    timerItem.next = null;
-                    timerItem.prev = null;
-                    timerItem.setTimerItems(null);
-                    taskCounter.decrementAndGet();
+                    unlink(timerItem);
                 }
             }
         }
     }
 
+    /**
+     * Remove the specified timer task entries at once, those moved to another list meanwhile are skipped.
+     * An entry only leaves this list under its monitor, so the entries' monitors are not needed.
+     */
+    void removeAll(List<TimerItem> timerItems) {
+        synchronized (this) {
+            for (TimerItem timerItem : timerItems) {
+                if (timerItem.getTimerItems()==this) {
+                    unlink(timerItem);
+                }
+            }
+        }
+    }
+
+    private void unlink(TimerItem timerItem) {
+        timerItem.next.prev = timerItem.prev;
+        timerItem.prev.next = timerItem.next;
+        timerItem.next = null;
+        timerItem.prev = null;
+        timerItem.setTimerItems(null);
+        taskCounter.decrementAndGet();
+    }
+
     /**
      * Remove all task entries and apply the supplied function to each of them.
      */
     public void flush(Function<TimerItem, Void> func) {
         synchronized (this) {
-            TimerItem head = root.next;
-            while (head!=root) {
-                remove(head);
-                func.apply(head);
-                head = root.next;
+            clear(func);
+            expiration = -1L;
+        }
+    }
+
+    /**
+     * Remove all task entries and apply the supplied function to each of them, but keep the expiration,
+     * since the bucket may still be queued and its position must not change.
+     */
+    public void clear(Function<TimerItem, Void> func) {
+        drain(item -> true, func);
+    }
+
+    /**
+     * Remove the task entries matching the filter and apply the supplied function to each of them,
+     * keeping the expiration like {@link #clear}.
+     */
+    public void drain(Predicate<TimerItem> filter, Function<TimerItem, Void> func) {
+        synchronized (this) {
+            TimerItem item = root.next;
+            while (item!=root) {
+                TimerItem next = item.next;
+                if (filter.test(item)) {
+                    remove(item);
+                    func.apply(item);
+                }
+                item = next;
             }
-            expiration.set(-1L);
         }
     }
 
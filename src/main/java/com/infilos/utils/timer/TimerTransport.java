@@ -0,0 +1,36 @@
+package com.infilos.utils.timer;
+
+import java.util.Set;
+
+/**
+ * SPI connecting the nodes of a {@link PartitionedTimer}, it tracks the members and delivers messages between them.
+ * See {@link LoopbackTransport} for the in-process implementation.
+ */
+
+public interface TimerTransport {
+
+    /**
+     * Add the node to the members, then notify every member, including the new one, of the new members.
+     */
+    void join(String nodeId, Receiver receiver);
+
+    /**
+     * Remove the node from the members, then notify the remaining members.
+     */
+    void leave(String nodeId);
+
+    Set<String> members();
+
+    /**
+     * Deliver the message to the node, implementations crossing the JVM boundary serialize the message,
+     * which requires the nodes to use a serializing {@link TimerTaskCodec}.
+     */
+    void send(String nodeId, TimerMessage message);
+
+    interface Receiver {
+
+        void onMessage(TimerMessage message);
+
+        void onMembers(Set<String> members);
+    }
+}
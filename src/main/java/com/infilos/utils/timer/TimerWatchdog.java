@@ -0,0 +1,143 @@
+package com.infilos.utils.timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in watchdog of a {@link SystemTimer}, detects tasks running longer than a budget and
+ * tick thread stalls, then reports them with a stack sample of the blocked thread.
+ *
+ * Usage, eg. new SystemTimer("TIMER").watchdog(new TimerWatchdog(500L, 1000L)).startup();
+ */
+
+public class TimerWatchdog extends TickThread {
+    private static final Logger log = LoggerFactory.getLogger(TimerWatchdog.class);
+
+    private static final WatchdogListener LOGGING = new WatchdogListener() {
+        @Override
+        public void onSlowTask(String timerName, TimerTask task, Thread thread, long runningInMillis, StackTraceElement[] stack) {
+            log.warn("Task {} of timer '{}' has been running for {} ms on thread '{}', at: {}",
+                task, timerName, runningInMillis, thread.getName(), Arrays.toString(stack));
+        }
+
+        @Override
+        public void onTickStall(String timerName, Thread tickThread, long lagInMillis, StackTraceElement[] stack) {
+            log.warn("Timer '{}' ticking falls behind for {} ms, tick thread at: {}",
+                timerName, lagInMillis, Arrays.toString(stack));
+        }
+    };
+
+    private final long budgetInMillis;
+    private final long stallInMillis;
+    private final long checkInMillis;
+    private final WatchdogListener listener;
+
+    /**
+     * One slot per executor thread, registered on its first task, then only updated with volatile writes.
+     */
+    private final Map<Thread, Running> runnings = new ConcurrentHashMap<>();
+    private final ThreadLocal<Running> running = ThreadLocal.withInitial(() -> {
+        Running slot = new Running();
+        runnings.put(Thread.currentThread(), slot);
+        return slot;
+    });
+
+    private volatile SystemTimer timer;
+    private boolean stalled = false;
+
+    public TimerWatchdog(long budgetInMillis, long stallInMillis, WatchdogListener listener) {
+        super("timer-watchdog");
+        this.setDaemon(true);
+        this.budgetInMillis = budgetInMillis;
+        this.stallInMillis = stallInMillis;
+        this.checkInMillis = Math.max(Math.min(budgetInMillis, stallInMillis) / 2, 10L);
+        this.listener = listener;
+    }
+
+    /**
+     * Report the events as slf4j warnings.
+     */
+    public TimerWatchdog(long budgetInMillis, long stallInMillis) {
+        this(budgetInMillis, stallInMillis, LOGGING);
+    }
+
+    /**
+     * A watchdog watches a single timer, its slots and stall state are per timer.
+     */
+    synchronized void watch(SystemTimer timer) {
+        if (this.timer != null && this.timer != timer) {
+            throw new IllegalStateException("Watchdog already watches timer '" + this.timer.getName() + "'");
+        }
+        this.timer = timer;
+        this.setName(timer.getName() + "-watchdog");
+    }
+
+    /**
+     * Wrap the task to track its running thread and start time.
+     */
+    Runnable wrap(TimerTask task) {
+        return () -> {
+            Running slot = running.get();
+            slot.startInMillis = Clock.now();
+            slot.task = task;
+            try {
+                task.run();
+            } finally {
+                slot.task = null;
+            }
+        };
+    }
+
+    @Override
+    public void invoke() {
+        SystemTimer current = timer;
+        if (current != null) {
+            checkTasks(current);
+            checkTicking(current);
+        }
+        pause(checkInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkTasks(SystemTimer current) {
+        long now = Clock.now();
+        for (Map.Entry<Thread, Running> entry : runnings.entrySet()) {
+            Running slot = entry.getValue();
+            TimerTask task = slot.task;
+            long start = slot.startInMillis;
+            if (task != null && now - start > budgetInMillis && slot.reportedInMillis != start) {
+                slot.reportedInMillis = start;
+                Thread thread = entry.getKey();
+                listener.onSlowTask(current.getName(), task, thread, now - start, thread.getStackTrace());
+            }
+        }
+        runnings.keySet().removeIf(thread -> !thread.isAlive());
+    }
+
+    private void checkTicking(SystemTimer current) {
+        long lag = current.tickLag();
+        if (lag > stallInMillis) {
+            if (!stalled) {
+                stalled = true;
+                Thread tickThread = current.getTickThread();
+                listener.onTickStall(current.getName(), tickThread, lag, tickThread.getStackTrace());
+            }
+        } else {
+            stalled = false;
+        }
+    }
+
+    private static final class Running {
+        volatile TimerTask task;
+        volatile long startInMillis;
+
+        /**
+         * Only touched by the watchdog thread.
+         */
+        long reportedInMillis = -1L;
+    }
+}
@@ -3,6 +3,9 @@ package com.infilos.utils.timer;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * @author infilos on 2020-08-07.
@@ -14,9 +17,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class TimingWheel {
     private final long tickInMills;
     private final int wheelSize;
+    private final int level;
     private final long interval;
     private final AtomicInteger taskCounter;
     private final DelayQueue<TimerTasks> queue;
+    private final SystemTimer owner;
     private long currentTime;
 
     /**
@@ -25,7 +30,10 @@ public class TimingWheel {
      */
     private volatile TimingWheel overflowWheel;
 
-    private final TimerTasks[] buckets;
+    /**
+     * Buckets are allocated on first use, most of them stay empty in the overflow wheels or in small timers.
+     */
+    private final AtomicReferenceArray<TimerTasks> buckets;
 
     public TimingWheel(
         long tickInMills,
@@ -33,16 +41,36 @@ public class TimingWheel {
         long startInMills,
         AtomicInteger taskCounter,
         DelayQueue<TimerTasks> queue) {
+        this(tickInMills, wheelSize, 0, startInMills, taskCounter, queue, null);
+    }
+
+    TimingWheel(
+        long tickInMills,
+        int wheelSize,
+        long startInMills,
+        AtomicInteger taskCounter,
+        DelayQueue<TimerTasks> queue,
+        SystemTimer owner) {
+        this(tickInMills, wheelSize, 0, startInMills, taskCounter, queue, owner);
+    }
+
+    private TimingWheel(
+        long tickInMills,
+        int wheelSize,
+        int level,
+        long startInMills,
+        AtomicInteger taskCounter,
+        DelayQueue<TimerTasks> queue,
+        SystemTimer owner) {
         this.tickInMills = tickInMills;
         this.wheelSize = wheelSize;
+        this.level = level;
         this.taskCounter = taskCounter;
         this.queue = queue;
+        this.owner = owner;
         this.interval = tickInMills * wheelSize;
         this.currentTime = startInMills - (startInMills % tickInMills);
-        this.buckets = new TimerTasks[wheelSize];
-        for(int idx=0; idx<buckets.length; idx++) {
-            buckets[idx] = new TimerTasks(taskCounter);
-        }
+        this.buckets = new AtomicReferenceArray<>(wheelSize);
     }
 
     public boolean add(TimerItem timerTaskItem) {
@@ -57,7 +85,7 @@ public class TimingWheel {
         } else if(expiration < currentTime + interval) {
             // Put in its own bucket
             long virtualid = expiration / tickInMills;
-            TimerTasks bucket = buckets[(int)(virtualid % wheelSize)];
+            TimerTasks bucket = bucket((int)(virtualid % wheelSize));
             bucket.add(timerTaskItem);
 
             // Set the bucket expiration time
@@ -79,6 +107,23 @@ public class TimingWheel {
         }
     }
 
+    /**
+     * Round the expiration up to the coarsest wheel tick not greater than the slack. The item then
+     * expires exactly on a bucket boundary of that wheel, so it is never cascaded into finer wheels,
+     * and all the items rounded to the same boundary share one bucket.
+     */
+    public long coarsen(long expirationInMillis, long slackInMillis) {
+        long granularity = tickInMills;
+        while (granularity <= slackInMillis / wheelSize) {
+            granularity *= wheelSize;
+        }
+        if (granularity <= 1 || granularity > slackInMillis) {
+            return expirationInMillis;
+        }
+        long remainder = Math.floorMod(expirationInMillis, granularity);
+        return remainder == 0 ? expirationInMillis : expirationInMillis - remainder + granularity;
+    }
+
     public void advanceClock(long timeInMillis) {
         if(timeInMillis >= currentTime + tickInMills) {
             currentTime = timeInMillis - (timeInMillis % tickInMills);
@@ -90,10 +135,46 @@ public class TimingWheel {
         }
     }
 
+    /**
+     * Remove all the items of this wheel and its overflow wheels, leaving them unexecuted.
+     */
+    public void clear() {
+        drain(timerTaskItem -> true, timerTaskItem -> {
+            timerTaskItem.leaveGroup();
+            return null;
+        });
+    }
+
+    /**
+     * Remove the items matching the filter from this wheel and its overflow wheels, and apply the function to each of them.
+     */
+    public void drain(Predicate<TimerItem> filter, Function<TimerItem, Void> func) {
+        for(int idx=0; idx<wheelSize; idx++) {
+            TimerTasks bucket = buckets.get(idx);
+            if(bucket != null) {
+                bucket.drain(filter, func);
+            }
+        }
+        if(overflowWheel != null) {
+            overflowWheel.drain(filter, func);
+        }
+    }
+
+    private TimerTasks bucket(int idx) {
+        TimerTasks bucket = buckets.get(idx);
+        if(bucket == null) {
+            bucket = new TimerTasks(taskCounter, level, owner);
+            if(!buckets.compareAndSet(idx, null, bucket)) {
+                bucket = buckets.get(idx);
+            }
+        }
+        return bucket;
+    }
+
     private void addOverflowWheel() {
         synchronized (this) {
             if(overflowWheel == null) {
-                overflowWheel = new TimingWheel(interval,wheelSize,currentTime,taskCounter,queue);
+                overflowWheel = new TimingWheel(interval,wheelSize,level + 1,currentTime,taskCounter,queue,owner);
             }
         }
     }
@@ -0,0 +1,21 @@
+package com.infilos.utils.timer;
+
+/**
+ * Receive the events detected by {@link TimerWatchdog}, called from the watchdog thread.
+ */
+
+public interface WatchdogListener {
+
+    /**
+     * A task has been running longer than the budget, reported once per run.
+     */
+    default void onSlowTask(String timerName, TimerTask task, Thread thread, long runningInMillis, StackTraceElement[] stack) {
+    }
+
+    /**
+     * The earliest bucket expired longer than the threshold ago but the tick thread has not advanced to it,
+     * reported once per stall.
+     */
+    default void onTickStall(String timerName, Thread tickThread, long lagInMillis, StackTraceElement[] stack) {
+    }
+}
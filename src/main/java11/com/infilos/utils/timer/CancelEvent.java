@@ -0,0 +1,21 @@
+package com.infilos.utils.timer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.infilos.timer.Cancel")
+@Label("Timer Bulk Cancel")
+@Category("Relax Timer")
+@Description("Cancellation of all pending tasks of a group")
+final class CancelEvent extends jdk.jfr.Event {
+    @Label("Timer")
+    String timer;
+
+    @Label("Group")
+    String group;
+
+    @Label("Count")
+    int count;
+}
@@ -0,0 +1,22 @@
+package com.infilos.utils.timer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.infilos.timer.Cascade")
+@Label("Timer Cascade")
+@Category("Relax Timer")
+@Description("Items of a flushed overflow bucket reinserted into finer wheels")
+final class CascadeEvent extends jdk.jfr.Event {
+    @Label("Timer")
+    String timer;
+
+    @Label("Level")
+    @Description("Level of the flushed bucket's wheel, 0 for the finest one")
+    int level;
+
+    @Label("Count")
+    int count;
+}
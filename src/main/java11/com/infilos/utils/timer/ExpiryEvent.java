@@ -0,0 +1,24 @@
+package com.infilos.utils.timer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.infilos.timer.Expiry")
+@Label("Timer Task Expiry")
+@Category("Relax Timer")
+@Description("Run of an expired task, the event duration is the run duration")
+final class ExpiryEvent extends jdk.jfr.Event {
+    @Label("Timer")
+    String timer;
+
+    @Label("Task")
+    Class<?> task;
+
+    @Label("Lateness")
+    @Description("Actual start time minus the scheduled expiration")
+    @Timespan(Timespan.MILLISECONDS)
+    long lateness;
+}
@@ -0,0 +1,24 @@
+package com.infilos.utils.timer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.infilos.timer.Tick")
+@Label("Timer Tick")
+@Category("Relax Timer")
+@Description("Advance of the timer clock, flushing the expired buckets")
+final class TickEvent extends jdk.jfr.Event {
+    @Label("Timer")
+    String timer;
+
+    @Label("Buckets Flushed")
+    int buckets;
+
+    @Label("Lag")
+    @Description("How long the first flushed bucket had been expired")
+    @Timespan(Timespan.MILLISECONDS)
+    long lag;
+}
@@ -0,0 +1,94 @@
+package com.infilos.utils.timer;
+
+import jdk.jfr.EventType;
+
+/**
+ * Java 11+ version of the hooks, emitting JFR events. Each hook checks its event type first,
+ * so nothing is allocated or timed when recording is off.
+ */
+
+final class TimerEvents {
+    private static final EventType TICK = EventType.getEventType(TickEvent.class);
+    private static final EventType CASCADE = EventType.getEventType(CascadeEvent.class);
+    private static final EventType EXPIRY = EventType.getEventType(ExpiryEvent.class);
+    private static final EventType CANCEL = EventType.getEventType(CancelEvent.class);
+
+    private TimerEvents() {
+    }
+
+    static Object beginTick() {
+        if (!TICK.isEnabled()) {
+            return null;
+        }
+        TickEvent event = new TickEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitTick(Object event, String timer, int buckets, long lagInMillis) {
+        if (event instanceof TickEvent) {
+            TickEvent tick = (TickEvent) event;
+            tick.end();
+            if (tick.shouldCommit()) {
+                tick.timer = timer;
+                tick.buckets = buckets;
+                tick.lag = Math.max(lagInMillis, 0L);
+                tick.commit();
+            }
+        }
+    }
+
+    static void commitCascade(String timer, int level, int count) {
+        if (CASCADE.isEnabled()) {
+            CascadeEvent event = new CascadeEvent();
+            event.timer = timer;
+            event.level = level;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    static Runnable expiry(String timer, TimerTask task, Runnable runnable, long expirationInMillis) {
+        if (!EXPIRY.isEnabled()) {
+            return runnable;
+        }
+        return () -> {
+            ExpiryEvent event = new ExpiryEvent();
+            event.begin();
+            long lateness = Clock.now() - expirationInMillis;
+            try {
+                runnable.run();
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.timer = timer;
+                    event.task = task.getClass();
+                    event.lateness = Math.max(lateness, 0L);
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    static Object beginCancel() {
+        if (!CANCEL.isEnabled()) {
+            return null;
+        }
+        CancelEvent event = new CancelEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitCancel(Object event, String timer, Object group, int count) {
+        if (event instanceof CancelEvent) {
+            CancelEvent cancel = (CancelEvent) event;
+            cancel.end();
+            if (cancel.shouldCommit()) {
+                cancel.timer = timer;
+                cancel.group = String.valueOf(group);
+                cancel.count = count;
+                cancel.commit();
+            }
+        }
+    }
+}
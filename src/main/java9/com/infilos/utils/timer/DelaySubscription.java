@@ -0,0 +1,65 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Emit a single 0 once both the delay elapsed and the subscriber requested it.
+ */
+
+final class DelaySubscription extends TimerTask implements Flow.Subscription {
+    private final Flow.Subscriber<? super Long> subscriber;
+
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private volatile boolean fired = false;
+    private volatile boolean requested = false;
+
+    private DelaySubscription(Flow.Subscriber<? super Long> subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    static void subscribe(Timer timer, long delayInMillis, Flow.Subscriber<? super Long> subscriber) {
+        Objects.requireNonNull(subscriber);
+        DelaySubscription subscription = new DelaySubscription(subscriber);
+        subscription.setDelay(Math.max(delayInMillis, 0L));
+        subscriber.onSubscribe(subscription);
+        if (!subscription.done.get()) {
+            timer.submit(subscription);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            if (done.compareAndSet(false, true)) {
+                super.cancel();
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+            }
+            return;
+        }
+        requested = true;
+        tryEmit();
+    }
+
+    @Override
+    public void cancel() {
+        done.set(true);
+        super.cancel();
+    }
+
+    @Override
+    public void run() {
+        fired = true;
+        tryEmit();
+    }
+
+    private void tryEmit() {
+        if (fired && requested && done.compareAndSet(false, true)) {
+            subscriber.onNext(0L);
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single task re-armed per tick while there is demand, and parked otherwise,
+ * so the timer never queues ticks that nobody asked for.
+ */
+
+final class IntervalSubscription extends TimerTask implements Flow.Subscription {
+    private final Timer timer;
+    private final long startInMillis;
+    private final long periodInMillis;
+    private final Flow.Subscriber<? super Long> subscriber;
+
+    private final AtomicLong requested = new AtomicLong(0L);
+    private final AtomicBoolean parked = new AtomicBoolean(true);
+    private volatile boolean cancelled = false;
+
+    /**
+     * Only touched by the running task, or by the request which unparks it.
+     */
+    private volatile long nextTick = 0L;
+
+    private IntervalSubscription(Timer timer, long delayInMillis, long periodInMillis, Flow.Subscriber<? super Long> subscriber) {
+        this.timer = timer;
+        this.startInMillis = Clock.now() + Math.max(delayInMillis, 0L);
+        this.periodInMillis = periodInMillis;
+        this.subscriber = subscriber;
+    }
+
+    static void subscribe(Timer timer, long delayInMillis, long periodInMillis, Flow.Subscriber<? super Long> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new IntervalSubscription(timer, delayInMillis, periodInMillis, subscriber));
+    }
+
+    @Override
+    public void request(long n) {
+        if (cancelled) {
+            return;
+        }
+        if (n <= 0) {
+            cancel();
+            subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+            return;
+        }
+
+        requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        if (parked.compareAndSet(true, false)) {
+            arm();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        super.cancel();
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) {
+            return;
+        }
+
+        // The wheel may fire a bucket slightly early, never go back before the expected tick.
+        long tick = Math.max((Clock.now() - startInMillis) / periodInMillis, nextTick);
+        nextTick = tick + 1;
+
+        // Reserve the demand before emitting, so requests made inside onNext are not lost.
+        if (requested.getAndUpdate(current -> current == Long.MAX_VALUE || current == 0 ? current : current - 1) > 0) {
+            try {
+                subscriber.onNext(tick);
+            } catch (Throwable ex) {
+                cancel();
+                subscriber.onError(ex);
+                return;
+            }
+        }
+
+        if (requested.get() > 0) {
+            arm();
+        } else {
+            parked.set(true);
+            if (requested.get() > 0 && parked.compareAndSet(true, false)) {
+                arm();
+            }
+        }
+    }
+
+    private void arm() {
+        if (!cancelled) {
+            // Fire immediately if the tick is already due, coalescing the missed ones.
+            this.setDelay(Math.max(startInMillis + nextTick * periodInMillis - Clock.now(), 0L));
+            this.resubmit(timer);
+        }
+    }
+}
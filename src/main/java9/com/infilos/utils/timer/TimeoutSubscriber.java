@@ -0,0 +1,104 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sits between the upstream and the downstream subscriber. Each item only pushes the deadline forward,
+ * the armed task checks it when fired and re-arms for the remaining time, so no timer work is done per item.
+ */
+
+final class TimeoutSubscriber<T> extends TimerTask implements Flow.Subscriber<T>, Flow.Subscription {
+    private final Timer timer;
+    private final long timeoutInMillis;
+    private final Flow.Subscriber<? super T> downstream;
+
+    /**
+     * Serializes downstream signals between the upstream thread and the timer executor.
+     */
+    private final Object signalLock = new Object();
+    private final AtomicBoolean terminated = new AtomicBoolean(false);
+
+    private volatile Flow.Subscription upstream;
+    private volatile long deadline;
+
+    TimeoutSubscriber(Timer timer, long timeoutInMillis, Flow.Subscriber<? super T> downstream) {
+        this.timer = timer;
+        this.timeoutInMillis = timeoutInMillis;
+        this.downstream = Objects.requireNonNull(downstream);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        upstream = subscription;
+        deadline = Clock.now() + timeoutInMillis;
+        downstream.onSubscribe(this);
+
+        this.setDelay(timeoutInMillis);
+        this.timer.submit(this);
+    }
+
+    @Override
+    public void onNext(T item) {
+        deadline = Clock.now() + timeoutInMillis;
+        synchronized (signalLock) {
+            if (!terminated.get()) {
+                downstream.onNext(item);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (terminated.compareAndSet(false, true)) {
+            super.cancel();
+            synchronized (signalLock) {
+                downstream.onError(throwable);
+            }
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (terminated.compareAndSet(false, true)) {
+            super.cancel();
+            synchronized (signalLock) {
+                downstream.onComplete();
+            }
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        upstream.request(n);
+    }
+
+    @Override
+    public void cancel() {
+        terminated.set(true);
+        super.cancel();
+        upstream.cancel();
+    }
+
+    @Override
+    public void run() {
+        if (terminated.get()) {
+            return;
+        }
+
+        long remaining = deadline - Clock.now();
+        if (remaining > 0) {
+            this.setDelay(remaining);
+            this.resubmit(timer);
+        } else if (terminated.compareAndSet(false, true)) {
+            upstream.cancel();
+            synchronized (signalLock) {
+                downstream.onError(new TimeoutException("No item within " + timeoutInMillis + " ms"));
+            }
+        }
+    }
+}
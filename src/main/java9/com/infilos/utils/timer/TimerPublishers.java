@@ -0,0 +1,51 @@
+package com.infilos.utils.timer;
+
+import com.infilos.utils.Timer;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Flow publishers driven by a timer, so reactive pipelines share the timer's wheel and executor
+ * instead of creating their own scheduler threads. Ticks are only armed while the subscriber has
+ * outstanding demand, ticks missed meanwhile are coalesced into the latest one.
+ *
+ * Usage, eg. TimerPublishers.interval(timer, 1000L).subscribe(subscriber);
+ */
+
+public final class TimerPublishers {
+    private TimerPublishers() {
+    }
+
+    /**
+     * Emit the elapsed tick index every period, starting from 0 right after subscription.
+     */
+    public static Flow.Publisher<Long> interval(Timer timer, long periodInMillis) {
+        return interval(timer, 0L, periodInMillis);
+    }
+
+    /**
+     * Emit the elapsed tick index every period, starting from 0 after the initial delay.
+     * Gaps in the emitted indexes are the ticks dropped due to lack of demand.
+     */
+    public static Flow.Publisher<Long> interval(Timer timer, long delayInMillis, long periodInMillis) {
+        if (periodInMillis <= 0) {
+            throw new IllegalArgumentException("Interval period must be positive: " + periodInMillis);
+        }
+        return subscriber -> IntervalSubscription.subscribe(timer, delayInMillis, periodInMillis, subscriber);
+    }
+
+    /**
+     * Emit a single 0 after the delay, then complete.
+     */
+    public static Flow.Publisher<Long> delay(Timer timer, long delayInMillis) {
+        return subscriber -> DelaySubscription.subscribe(timer, delayInMillis, subscriber);
+    }
+
+    /**
+     * Mirror the upstream publisher, but signal a {@link java.util.concurrent.TimeoutException} and cancel
+     * the upstream when no item arrives within the timeout, after subscription or after the previous item.
+     */
+    public static <T> Flow.Publisher<T> timeout(Timer timer, Flow.Publisher<T> upstream, long timeoutInMillis) {
+        return subscriber -> upstream.subscribe(new TimeoutSubscriber<>(timer, timeoutInMillis, subscriber));
+    }
+}
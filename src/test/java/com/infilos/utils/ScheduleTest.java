@@ -0,0 +1,74 @@
+package com.infilos.utils;
+
+import com.infilos.utils.timer.BusinessCalendar;
+import com.infilos.utils.timer.Schedule;
+import com.infilos.utils.timer.TimerTask;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ScheduleTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    private static long at(int year, int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(year, month, day, hour, minute, second).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void testCronNext() {
+        Schedule schedule = Schedule.cron("0 30 9 * * MON-FRI", ZONE);
+
+        // 2026-10-16 is a friday
+        assertEquals(at(2026, 10, 16, 9, 30, 0), schedule.next(at(2026, 10, 16, 8, 0, 0)));
+        assertEquals(at(2026, 10, 19, 9, 30, 0), schedule.next(at(2026, 10, 16, 9, 30, 0)));
+
+        Schedule steps = Schedule.cron("*/15 * * * *", ZONE);
+        assertEquals(at(2026, 10, 16, 8, 15, 0), steps.next(at(2026, 10, 16, 8, 0, 0)));
+        assertEquals(at(2026, 10, 17, 0, 0, 0), steps.next(at(2026, 10, 16, 23, 50, 0)));
+
+        Schedule leap = Schedule.cron("0 0 29 FEB *", ZONE);
+        assertEquals(at(2028, 2, 29, 0, 0, 0), leap.next(at(2026, 10, 16, 0, 0, 0)));
+
+        assertEquals(Schedule.NEVER, Schedule.cron("0 0 30 2 *", ZONE).next(at(2026, 10, 16, 0, 0, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCronInvalid() {
+        Schedule.cron("0 61 * * *", ZONE);
+    }
+
+    @Test
+    public void testBusinessDays() {
+        BusinessCalendar calendar = BusinessCalendar.weekdays().addHoliday(LocalDate.of(2026, 10, 19));
+        Schedule schedule = Schedule.daily(LocalTime.of(18, 0), ZONE).onBusinessDays(calendar);
+
+        // friday evening -> skip weekend and monday holiday
+        assertEquals(at(2026, 10, 20, 18, 0, 0), schedule.next(at(2026, 10, 16, 18, 0, 0)));
+    }
+
+    @Test
+    public void testScheduleTask() throws InterruptedException {
+        Timer timer = Timer.create("test-schedule", 1, 20).startup();
+        try {
+            CountDownLatch latch = new CountDownLatch(2);
+            TimerTask task = timer.schedule(latch::countDown, Schedule.cron("* * * * * ?", ZONE));
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            task.cancel();
+        } finally {
+            timer.shutdown();
+        }
+    }
+}
@@ -1,6 +1,22 @@
 package com.infilos.utils;
 
+import com.infilos.utils.timer.ActivityTimer;
+import com.infilos.utils.timer.BackoffPolicy;
+import com.infilos.utils.timer.Jitter;
+import com.infilos.utils.timer.LoopbackTransport;
+import com.infilos.utils.timer.PartitionedTimer;
+import com.infilos.utils.timer.PeriodTask;
+import com.infilos.utils.timer.RetryScheduler;
+import com.infilos.utils.timer.SharedTicker;
+import com.infilos.utils.timer.SystemTimer;
+import com.infilos.utils.timer.TimerItem;
+import com.infilos.utils.timer.TimerMessage;
 import com.infilos.utils.timer.TimerTask;
+import com.infilos.utils.timer.TimerTaskCodec;
+import com.infilos.utils.timer.TimerTasks;
+import com.infilos.utils.timer.TimerWatchdog;
+import com.infilos.utils.timer.TimingWheel;
+import com.infilos.utils.timer.WatchdogListener;
 import org.awaitility.Duration;
 import org.junit.After;
 import org.junit.Before;
@@ -8,20 +24,43 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author infilos on 2020-08-07.
@@ -169,4 +208,448 @@ public class TimerTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWatchdogSlowTask() throws InterruptedException {
+        CountDownLatch reported = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WatchdogListener listener = new WatchdogListener() {
+            @Override
+            public void onSlowTask(String timerName, TimerTask task, Thread thread, long runningInMillis, StackTraceElement[] stack) {
+                assertTrue(runningInMillis > 50);
+                assertTrue(stack.length > 0);
+                reported.countDown();
+            }
+        };
+
+        TimerWatchdog watchdog = new TimerWatchdog(50L, 1000L, listener);
+        Timer watched = new SystemTimer("test-watchdog", 1, 20).watchdog(watchdog).startup();
+        try {
+            try {
+                new SystemTimer("test-watchdog-other", 1, 20).watchdog(watchdog);
+                fail("Watchdog must not be rebound to another timer");
+            } catch (IllegalStateException expected) {
+            }
+
+            watched.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignore) {
+                }
+            }, 10L);
+
+            assertTrue(reported.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            watched.shutdown();
+        }
+    }
+
+    @Test
+    public void testJitterSpread() {
+        Jitter spread = Jitter.spread(1000L);
+
+        long[] delays = IntStream.range(0, 1000).mapToLong(id -> spread.apply(5000L, id)).toArray();
+        long buckets = Arrays.stream(delays).map(delay -> (delay - 5000L) / 100L).distinct().count();
+
+        Arrays.stream(delays).forEach(delay -> assertTrue(delay >= 5000L && delay < 6000L));
+        assertEquals(10, buckets);
+        assertEquals(delays[42], spread.apply(5000L, 42));
+    }
+
+    @Test
+    public void testTimerJitter() throws InterruptedException {
+        AtomicInteger timerJitters = new AtomicInteger(0);
+        AtomicInteger taskJitters = new AtomicInteger(0);
+        Timer jittered = new SystemTimer("test-jitter", 1, 20).jitter((delay, key) -> {
+            timerJitters.incrementAndGet();
+            return delay;
+        }).startup();
+
+        try {
+            // the timer's jitter applies to the submission, not to the re-arms of the task itself
+            CountDownLatch periods = new CountDownLatch(4);
+            PeriodTask period = new PeriodTask(jittered, periods::countDown, 10L, 20L);
+            jittered.submit(period);
+            assertTrue(periods.await(5, TimeUnit.SECONDS));
+            assertEquals(1, timerJitters.get());
+
+            // submitting it again, eg. after a reconnect, is jittered again
+            period.cancel();
+            jittered.submit(period);
+            assertEquals(2, timerJitters.get());
+            period.cancel();
+
+            // the task's own jitter overrides the timer's one
+            CountDownLatch own = new CountDownLatch(1);
+            TimerTask task = Timer.task(own::countDown, 10L);
+            task.setJitter((delay, key) -> {
+                assertEquals("key", key);
+                taskJitters.incrementAndGet();
+                return delay + 5L;
+            }, "key");
+            jittered.submit(task);
+            assertTrue(own.await(5, TimeUnit.SECONDS));
+            assertEquals(1, taskJitters.get());
+            assertEquals(2, timerJitters.get());
+
+            // the start phase is randomized once, at construction
+            PeriodTask phased = new PeriodTask(jittered, () -> {
+            }, 10L, 20L, (delay, key) -> delay + 1000L);
+            assertEquals(1010L, phased.getDelay());
+
+            // and is the same for the same key
+            Jitter spread = Jitter.spread(1000L);
+            long phase = new PeriodTask(jittered, () -> {
+            }, 10L, 20L, spread, "conn-1").getDelay();
+            assertEquals(phase, new PeriodTask(jittered, () -> {
+            }, 10L, 20L, spread, "conn-1").getDelay());
+        } finally {
+            jittered.shutdown();
+        }
+    }
+
+    @Test
+    public void testSlackCoarsen() {
+        TimingWheel wheel = new TimingWheel(1L, 20, 0L, new AtomicInteger(0), new DelayQueue<>());
+
+        assertEquals(12345L, wheel.coarsen(12345L, 0L));
+        assertEquals(12360L, wheel.coarsen(12345L, 20L));
+        assertEquals(12400L, wheel.coarsen(12345L, 1000L));
+        assertEquals(12400L, wheel.coarsen(12400L, 1000L));
+    }
+
+    @Test
+    public void testSlackSkipsCascade() {
+        DelayQueue<TimerTasks> queue = new DelayQueue<>();
+        TimingWheel wheel = new TimingWheel(1L, 20, 0L, new AtomicInteger(0), queue);
+
+        // 341 to 359 wait in the [340, 360) bucket of the 20ms wheel, then cascade into the 1ms wheel
+        TimerItem plain = new TimerItem(Timer.task(() -> {
+        }, 0L), 345L);
+        List<TimerItem> slacked = LongStream.of(341L, 350L, 359L)
+            .mapToObj(expiration -> new TimerItem(Timer.task(() -> {
+            }, 0L), wheel.coarsen(expiration, 20L)))
+            .collect(Collectors.toList());
+        assertTrue(wheel.add(plain));
+        slacked.forEach(item -> assertTrue(wheel.add(item)));
+
+        // flush each bucket at its expiration, like the timer does
+        List<TimerItem> cascaded = new ArrayList<>();
+        Map<TimerItem, Long> fired = new HashMap<>();
+        Set<TimerTasks> firings = new HashSet<>();
+        TimerTasks bucket;
+        while ((bucket = queue.poll()) != null) {
+            TimerTasks flushing = bucket;
+            wheel.advanceClock(flushing.getExpiration());
+            flushing.flush(item -> {
+                if (wheel.add(item)) {
+                    cascaded.add(item);
+                } else {
+                    fired.put(item, flushing.getExpiration());
+                    if (slacked.contains(item)) {
+                        firings.add(flushing);
+                    }
+                }
+                return null;
+            });
+        }
+
+        assertEquals(Collections.singletonList(plain), cascaded);
+        assertEquals(345L, (long) fired.get(plain));
+        // slack items skip the finer wheel, share one firing, and fire within their slack
+        assertEquals(1, firings.size());
+        slacked.forEach(item -> assertEquals(360L, (long) fired.get(item)));
+    }
+
+    @Test
+    public void testCancelGroup() throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger(0);
+        CountDownLatch others = new CountDownLatch(10);
+
+        // spread over the buckets of several wheels
+        List<TimerTask> tasks = IntStream.range(0, 200)
+            .mapToObj(idx -> timer.submit("conn-1", fired::incrementAndGet, 500L + idx * 5L))
+            .collect(Collectors.toList());
+        IntStream.range(0, 10).forEach(idx -> timer.submit("conn-2", others::countDown, 500L));
+
+        assertEquals(200, timer.cancelGroup("conn-1"));
+        assertEquals(0, timer.cancelGroup("conn-1"));
+        assertEquals(10, timer.count());
+        tasks.forEach(task -> assertEquals(null, task.getTimerItem()));
+
+        assertTrue(others.await(5, TimeUnit.SECONDS));
+        assertEquals(0, fired.get());
+        assertEquals(0, timer.cancelGroup("conn-2"));
+    }
+
+    @Test
+    public void testActivityTimer() throws InterruptedException {
+        CountDownLatch idle = new CountDownLatch(1);
+        ActivityTimer activity = timer.activity(1000L, idle::countDown);
+        long started = activity.getLastActivity();
+
+        // touches only move the last activity, the single armed entry is re-armed lazily
+        IntStream.range(0, 10).forEach(idx -> {
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException ignore) {
+            }
+            activity.touch();
+            assertEquals(1, timer.count());
+        });
+        assertTrue(activity.getLastActivity() > started);
+        assertEquals(1, idle.getCount());
+
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+        activity.stop();
+        assertEquals(0, timer.count());
+    }
+
+    @Test
+    public void testActivityTimerStop() throws InterruptedException {
+        // stop waits for a running callback
+        CountDownLatch running = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger(0);
+        ActivityTimer slow = timer.activity(10L, () -> {
+            running.countDown();
+            try {
+                Thread.sleep(100L);
+            } catch (InterruptedException ignore) {
+            }
+            finished.incrementAndGet();
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        slow.stop();
+        assertEquals(1, finished.get());
+
+        // stopping races with the re-arms, still no entry survives it
+        List<ActivityTimer> activities = IntStream.range(0, 300)
+            .mapToObj(idx -> timer.activity(20L, () -> {
+            }))
+            .collect(Collectors.toList());
+        Thread.sleep(30L);
+        activities.forEach(ActivityTimer::stop);
+        Thread.sleep(5L);
+        assertEquals(0, timer.count());
+    }
+
+    @Test
+    public void testSharedTicker() throws InterruptedException {
+        SharedTicker ticker = new SharedTicker("test-shared", 2).startup();
+        try {
+            List<Timer> timers = IntStream.range(0, 1000)
+                .mapToObj(idx -> Timer.create("tenant-" + idx, ticker).startup())
+                .collect(Collectors.toList());
+
+            CountDownLatch latch = new CountDownLatch(timers.size());
+            timers.forEach(each -> each.submit(latch::countDown, 100L));
+            timers.forEach(each -> each.submit(() -> {
+            }, 60000L));
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            Timer first = timers.get(0);
+            assertEquals(1, first.count());
+            first.shutdown();
+            assertEquals(0, first.count());
+            assertEquals(1, timers.get(1).count());
+
+            // a shutdown timer is no longer held by its pending buckets in the shared queue
+            WeakReference<Timer> released = new WeakReference<>(Timer.create("tenant-released", ticker).startup());
+            released.get().submit(() -> {
+            }, 3600000L);
+            released.get().shutdown();
+            for (int idx = 0; idx < 50 && released.get() != null; idx++) {
+                System.gc();
+                Thread.sleep(10L);
+            }
+            assertEquals(null, released.get());
+
+            // submits after shutdown are dropped, the ticker still runs for the others
+            CountDownLatch dropped = new CountDownLatch(1);
+            first.submit(dropped::countDown, 10L);
+            assertEquals(0, first.count());
+            assertFalse(dropped.await(200, TimeUnit.MILLISECONDS));
+
+            // a periodic task stops re-arming once its timer is shutdown
+            Timer second = timers.get(1);
+            AtomicInteger runs = new AtomicInteger(0);
+            second.submit(runs::incrementAndGet, 0L, 20L);
+            Thread.sleep(200L);
+            assertTrue(runs.get() > 0);
+            second.shutdown();
+            Thread.sleep(100L);
+            int stopped = runs.get();
+            Thread.sleep(200L);
+            assertEquals(stopped, runs.get());
+            assertEquals(0, second.count());
+        } finally {
+            ticker.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger(0);
+        CompletableFuture<Integer> succeeded = timer.retry(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("unavailable");
+            }
+            return attempts.get();
+        }, BackoffPolicy.decorrelated(10L, 100L));
+        assertEquals(3, (int) succeeded.get(5, TimeUnit.SECONDS));
+
+        // per key cap, the second call of the key gives up on its first failure
+        BackoffPolicy policy = BackoffPolicy.exponential(50L, 50L).maxAttempts(3);
+        RetryScheduler perKey = new RetryScheduler(timer, 10, 1);
+        AtomicInteger firstAttempts = new AtomicInteger(0);
+        AtomicInteger secondAttempts = new AtomicInteger(0);
+        assertRetryCapped(perKey.retry("host", () -> failing(firstAttempts), policy),
+            perKey.retry("host", () -> failing(secondAttempts), policy));
+        assertEquals(3, firstAttempts.get());
+        assertEquals(1, secondAttempts.get());
+        assertEquals(0, perKey.inFlight());
+
+        // global cap, the same across keys
+        RetryScheduler global = new RetryScheduler(timer, 1, 10);
+        firstAttempts.set(0);
+        secondAttempts.set(0);
+        assertRetryCapped(global.retry("host-1", () -> failing(firstAttempts), policy),
+            global.retry("host-2", () -> failing(secondAttempts), policy));
+        assertEquals(3, firstAttempts.get());
+        assertEquals(1, secondAttempts.get());
+        assertEquals(0, global.inFlight());
+
+        // attempts run on the given executor instead of the timer's expiry thread
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-attempts"));
+        try {
+            CompletableFuture<String> offloaded = new RetryScheduler(timer, 10, 10, executor)
+                .retry(() -> Thread.currentThread().getName(), policy);
+            assertEquals("test-attempts", offloaded.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Object failing(AtomicInteger attempts) {
+        attempts.incrementAndGet();
+        throw new IllegalStateException("down");
+    }
+
+    private static void assertRetryCapped(CompletableFuture<Object> first, CompletableFuture<Object> second) throws Exception {
+        try {
+            CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException expected) {
+        }
+        assertTrue(first.isCompletedExceptionally() && second.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testPartitionedTimer() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport();
+        List<PartitionedTimer> nodes = IntStream.range(0, 3)
+            .mapToObj(idx -> new PartitionedTimer("node-" + idx, new SystemTimer("test-node-" + idx, 1, 20), transport, 64))
+            .collect(Collectors.toList());
+        nodes.forEach(PartitionedTimer::startup);
+
+        try {
+            CountDownLatch latch = new CountDownLatch(300);
+            AtomicInteger jittered = new AtomicInteger(0);
+            Jitter counting = (delayInMillis, key) -> {
+                jittered.incrementAndGet();
+                return delayInMillis;
+            };
+            IntStream.range(0, 300).forEach(idx -> {
+                TimerTask task = Timer.task(latch::countDown, 0L);
+                task.setJitter(counting);
+                nodes.get(0).submit("tenant-" + idx, task, 1000L);
+            });
+
+            nodes.forEach(node -> assertTrue(node.count() > 0));
+            assertEquals(300, nodes.stream().mapToInt(Timer::count).sum());
+
+            nodes.get(1).shutdown();
+            assertEquals(0, nodes.get(1).count());
+            assertEquals(300, nodes.get(0).count() + nodes.get(2).count());
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            // handed over tasks keep their expiration, the jitter is applied once on submit
+            assertEquals(300, jittered.get());
+        } finally {
+            nodes.get(0).shutdown();
+            nodes.get(2).shutdown();
+        }
+    }
+
+    @Test
+    public void testPartitionedTimerLeave() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport();
+        PartitionedTimer first = new PartitionedTimer("node-0", new SystemTimer("test-node-0", 1, 20), transport, 64);
+        PartitionedTimer second = new PartitionedTimer("node-1", new SystemTimer("test-node-1", 1, 20), transport, 64);
+        first.startup();
+        second.startup();
+
+        try {
+            String remote = IntStream.range(0, 100).mapToObj(idx -> "tenant-" + idx)
+                .filter(key -> "node-0".equals(second.ownerOf(key)))
+                .findFirst().orElseThrow(IllegalStateException::new);
+            first.submit(remote, Timer.task(() -> {
+            }, 0L), 60000L);
+            assertEquals(-1, second.cancelGroup(remote));
+            assertEquals(0, first.count());
+
+            // the periodic task keeps re-arming through the departed node, which routes it to the remaining one
+            AtomicInteger runs = new AtomicInteger(0);
+            PeriodTask task = new PeriodTask(second, runs::incrementAndGet, 0L, 20L);
+            second.submit(task);
+            Thread.sleep(100L);
+            second.shutdown();
+            int handed = runs.get();
+            Thread.sleep(300L);
+            assertTrue(runs.get() > handed + 1);
+            assertEquals(0, second.count());
+            await().atMost(Duration.ONE_SECOND).until(() -> first.count() == 1);
+            task.cancel();
+        } finally {
+            first.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimerTaskCodec() throws IOException, ClassNotFoundException {
+        TimerTask task = Timer.task(() -> {
+        }, 1000L);
+        TimerMessage inProcess = TimerMessage.submit("tenant", 1000L, TimerTaskCodec.inProcess().encode(task));
+        assertSame(task, TimerTaskCodec.inProcess().decode(inProcess.getPayload()));
+        try {
+            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(inProcess);
+            fail("In-process task must not be serialized");
+        } catch (NotSerializableException expected) {
+        }
+
+        TimerTaskCodec codec = TimerTaskCodec.serializable();
+        TimerMessage remote = TimerMessage.submit("tenant", 1000L, codec.encode(new SerializableTask(7)));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ObjectOutputStream(bytes).writeObject(remote);
+        TimerMessage received = (TimerMessage) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertEquals("tenant", received.getKey());
+        assertEquals(1000L, received.getExpiration());
+        assertEquals(7, ((SerializableTask) codec.decode(received.getPayload())).id);
+    }
+
+    private static class SerializableTask extends TimerTask implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+
+        SerializableTask(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
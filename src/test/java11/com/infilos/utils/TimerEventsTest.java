@@ -0,0 +1,70 @@
+package com.infilos.utils;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TimerEventsTest {
+
+    private static final String[] EVENTS = {
+        "com.infilos.timer.Tick",
+        "com.infilos.timer.Cascade",
+        "com.infilos.timer.Expiry",
+        "com.infilos.timer.Cancel"
+    };
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        Path dump = Files.createTempFile("relax-timer", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : EVENTS) {
+                recording.enable(event).withoutThreshold();
+            }
+            recording.start();
+
+            // 20ms wheel with 1ms ticks, the longer delays overflow and cascade back
+            Timer timer = Timer.create("test-jfr", 1, 20).startup();
+            try {
+                CountDownLatch latch = new CountDownLatch(10);
+                IntStream.range(0, 10).forEach(idx -> timer.submit(latch::countDown, 50L * (idx + 1)));
+                IntStream.range(0, 3).forEach(idx -> timer.submit("cancelled", () -> {
+                }, 60000L));
+
+                assertEquals(3, timer.cancelGroup("cancelled"));
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+            } finally {
+                timer.shutdown();
+            }
+
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            Set<String> recorded = events.stream()
+                .filter(event -> "test-jfr".equals(event.getString("timer")))
+                .map(event -> event.getEventType().getName())
+                .collect(Collectors.toSet());
+            for (String event : EVENTS) {
+                assertTrue(event + " not recorded", recorded.contains(event));
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
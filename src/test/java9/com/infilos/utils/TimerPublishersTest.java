@@ -0,0 +1,153 @@
+package com.infilos.utils;
+
+import com.infilos.utils.timer.TimerPublishers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TimerPublishersTest {
+
+    private static class TestSubscriber<T> implements Flow.Subscriber<T> {
+        private final long initialRequest;
+        private final List<T> items = new ArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        TestSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (items) {
+                items.add(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        List<T> items() {
+            synchronized (items) {
+                return new ArrayList<>(items);
+            }
+        }
+    }
+
+    private Timer timer;
+
+    @Before
+    public void setup() {
+        timer = Timer.create("test-flow", 1, 20).startup();
+    }
+
+    @After
+    public void clean() {
+        timer.shutdown();
+    }
+
+    @Test
+    public void testIntervalWithoutDemand() throws InterruptedException {
+        TestSubscriber<Long> subscriber = new TestSubscriber<>(0);
+        TimerPublishers.interval(timer, 50L).subscribe(subscriber);
+
+        Thread.sleep(300L);
+        assertTrue(subscriber.items().isEmpty());
+        assertEquals(0, timer.count());
+        subscriber.subscription.cancel();
+    }
+
+    @Test
+    public void testIntervalCoalescesMissedTicks() throws InterruptedException {
+        TestSubscriber<Long> subscriber = new TestSubscriber<>(1);
+        TimerPublishers.interval(timer, 50L).subscribe(subscriber);
+
+        Thread.sleep(300L);
+        List<Long> parked = subscriber.items();
+        assertEquals(1, parked.size());
+        assertEquals(0L, (long) parked.get(0));
+        assertEquals(0, timer.count());
+
+        subscriber.subscription.request(1);
+        Thread.sleep(200L);
+        List<Long> resumed = subscriber.items();
+        assertEquals(2, resumed.size());
+        assertTrue(resumed.get(1) >= 2L);
+        subscriber.subscription.cancel();
+    }
+
+    @Test
+    public void testIntervalNonPositiveRequest() throws InterruptedException {
+        TestSubscriber<Long> subscriber = new TestSubscriber<>(0);
+        TimerPublishers.interval(timer, 50L).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+        assertTrue(subscriber.error.get() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testDelayWaitsForDemand() throws InterruptedException {
+        TestSubscriber<Long> subscriber = new TestSubscriber<>(0);
+        TimerPublishers.delay(timer, 50L).subscribe(subscriber);
+
+        Thread.sleep(200L);
+        assertTrue(subscriber.items().isEmpty());
+
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+        assertEquals(1, subscriber.items().size());
+        assertEquals(null, subscriber.error.get());
+    }
+
+    @Test
+    public void testTimeoutRearmsAndFires() throws InterruptedException {
+        SubmissionPublisher<String> upstream = new SubmissionPublisher<>();
+        TestSubscriber<String> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+        TimerPublishers.timeout(timer, upstream, 500L).subscribe(subscriber);
+
+        for (int idx = 0; idx < 10; idx++) {
+            upstream.submit("item-" + idx);
+            Thread.sleep(50L);
+        }
+        assertEquals(null, subscriber.error.get());
+        assertEquals(1, timer.count());
+
+        assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error.get() instanceof TimeoutException);
+        assertEquals(10, subscriber.items().size());
+        upstream.close();
+    }
+}